@@ -43,3 +43,191 @@ export function sm4Decrypt(text, key) {
   return sm4.decrypt(text, key)
 }
 
+
+/**
+ * sm4-gcm加密，一次运算完成加密和完整性校验，不需要再单独计算签名
+ * 附加数据为 aadPrefix + nonce的十六进制，aadPrefix 一般为 签名前缀 + 时间戳
+ * 返回 十六进制(12字节nonce + 密文 + 16字节tag)
+ */
+export function sm4GcmEncrypt(text, key, aadPrefix) {
+  const nonce = Array.from(crypto.getRandomValues(new Uint8Array(12)))
+  const nonceHex = bytesToHex(nonce)
+  const aad = Array.from(new TextEncoder().encode(aadPrefix + nonceHex))
+  const result = gcm(Array.from(new TextEncoder().encode(text)), key, nonce, aad, true)
+  return nonceHex + bytesToHex(result.data) + bytesToHex(result.tag)
+}
+
+/** sm4-gcm解密，密文长度错误或tag校验失败时抛出异常 */
+export function sm4GcmDecrypt(text, key, aadPrefix) {
+  const bytes = hexToBytes(text)
+  // 至少包含 12字节nonce + 16字节tag
+  if (bytes.length < 28) {
+    throw new Error('sm4-gcm 密文长度错误')
+  }
+  const nonce = bytes.slice(0, 12)
+  const data = bytes.slice(12, bytes.length - 16)
+  const tag = bytes.slice(bytes.length - 16)
+  const aad = Array.from(new TextEncoder().encode(aadPrefix + bytesToHex(nonce)))
+  const result = gcm(data, key, nonce, aad, false)
+  let diff = 0
+  for (let i = 0; i < 16; i++) {
+    diff |= result.tag[i] ^ tag[i]
+  }
+  if (diff !== 0) {
+    throw new Error('sm4-gcm 校验失败')
+  }
+  return new TextDecoder().decode(new Uint8Array(result.data))
+}
+
+// GCM（12字节nonce），分组加密使用 sm-crypto 的 sm4 无填充模式
+function gcm(input, key, nonce, aad, encrypt) {
+  const blockEncrypt = (blocks) => sm4.encrypt(blocks, key, { padding: 'none', output: 'array' })
+
+  const table = ghashTable(blockEncrypt(new Array(16).fill(0)))
+  const j0 = nonce.concat([0, 0, 0, 1])
+
+  // 计数器模式加解密
+  const blockCount = Math.ceil(input.length / 16)
+  const counters = new Array(blockCount * 16)
+  for (let i = 0; i < blockCount; i++) {
+    const block = inc32(j0, i + 1)
+    for (let j = 0; j < 16; j++) {
+      counters[i * 16 + j] = block[j]
+    }
+  }
+  const stream = blockCount > 0 ? blockEncrypt(counters) : []
+  const output = input.map((b, i) => b ^ stream[i])
+
+  // tag = E(J0) xor GHASH(附加数据, 密文)
+  const s = ghash(table, aad, encrypt ? output : input)
+  const tag = blockEncrypt(j0).map((b, i) => b ^ s[i])
+  return { data: output, tag }
+}
+
+function inc32(j0, n) {
+  const block = j0.slice()
+  const counter = ((block[12] << 24) >>> 0) + (block[13] << 16) + (block[14] << 8) + block[15] + n
+  block[12] = (counter >>> 24) & 0xff
+  block[13] = (counter >>> 16) & 0xff
+  block[14] = (counter >>> 8) & 0xff
+  block[15] = counter & 0xff
+  return block
+}
+
+// 4位查表的归约值（Shoup），对应 R = 11100001 || 0^120
+const LAST4 = [
+  0x0000, 0x1c20, 0x3840, 0x2460, 0x7080, 0x6ca0, 0x48c0, 0x54e0,
+  0xe100, 0xfd20, 0xd940, 0xc560, 0x9180, 0x8da0, 0xa9c0, 0xb5e0
+]
+
+// 预先计算 i * H（i 为 0~15），每个值拆成 4个32位字，t[0]为最高位
+function ghashTable(h) {
+  const t = [new Uint32Array(16), new Uint32Array(16), new Uint32Array(16), new Uint32Array(16)]
+  let v0 = wordAt(h, 0)
+  let v1 = wordAt(h, 4)
+  let v2 = wordAt(h, 8)
+  let v3 = wordAt(h, 12)
+  t[0][8] = v0
+  t[1][8] = v1
+  t[2][8] = v2
+  t[3][8] = v3
+  for (let i = 4; i > 0; i >>= 1) {
+    const r = v3 & 1 ? 0xe1000000 : 0
+    v3 = (v2 << 31) | (v3 >>> 1)
+    v2 = (v1 << 31) | (v2 >>> 1)
+    v1 = (v0 << 31) | (v1 >>> 1)
+    v0 = (v0 >>> 1) ^ r
+    t[0][i] = v0
+    t[1][i] = v1
+    t[2][i] = v2
+    t[3][i] = v3
+  }
+  for (let i = 2; i <= 8; i *= 2) {
+    for (let j = 1; j < i; j++) {
+      for (let w = 0; w < 4; w++) {
+        t[w][i + j] = t[w][i] ^ t[w][j]
+      }
+    }
+  }
+  return t
+}
+
+function ghash(table, aad, cipher) {
+  const y = new Uint32Array(4)
+  const block = new Array(16)
+  const update = (bytes) => {
+    for (let i = 0; i < bytes.length; i += 16) {
+      for (let j = 0; j < 16; j++) {
+        block[j] = i + j < bytes.length ? bytes[i + j] : 0
+      }
+      for (let w = 0; w < 4; w++) {
+        y[w] ^= wordAt(block, w * 4)
+      }
+      gfMul(table, y)
+    }
+  }
+  update(aad)
+  update(cipher)
+  // 长度块：附加数据和密文的位数，各64位
+  const aadBits = aad.length * 8
+  const cipherBits = cipher.length * 8
+  y[0] ^= Math.floor(aadBits / 0x100000000)
+  y[1] ^= aadBits >>> 0
+  y[2] ^= Math.floor(cipherBits / 0x100000000)
+  y[3] ^= cipherBits >>> 0
+  gfMul(table, y)
+
+  const result = new Array(16)
+  for (let w = 0; w < 4; w++) {
+    result[w * 4] = y[w] >>> 24
+    result[w * 4 + 1] = (y[w] >>> 16) & 0xff
+    result[w * 4 + 2] = (y[w] >>> 8) & 0xff
+    result[w * 4 + 3] = y[w] & 0xff
+  }
+  return result
+}
+
+// GF(2^128) 乘法 y = y * H，每次处理4位，结果写回 y
+function gfMul(table, y) {
+  const [t0, t1, t2, t3] = table
+  let z0 = 0
+  let z1 = 0
+  let z2 = 0
+  let z3 = 0
+  // 从最后一个字节开始，每个字节先低4位后高4位
+  for (let n = 31; n >= 0; n--) {
+    const byte = (y[n >> 3] >>> ((3 - ((n >> 1) & 3)) * 8)) & 0xff
+    const nibble = n & 1 ? byte & 0x0f : byte >>> 4
+    if (n !== 31) {
+      const rem = z3 & 0x0f
+      z3 = (z2 << 28) | (z3 >>> 4)
+      z2 = (z1 << 28) | (z2 >>> 4)
+      z1 = (z0 << 28) | (z1 >>> 4)
+      z0 = (z0 >>> 4) ^ (LAST4[rem] << 16)
+    }
+    z0 ^= t0[nibble]
+    z1 ^= t1[nibble]
+    z2 ^= t2[nibble]
+    z3 ^= t3[nibble]
+  }
+  y[0] = z0
+  y[1] = z1
+  y[2] = z2
+  y[3] = z3
+}
+
+function wordAt(bytes, offset) {
+  return ((bytes[offset] << 24) | (bytes[offset + 1] << 16) | (bytes[offset + 2] << 8) | bytes[offset + 3]) >>> 0
+}
+
+function bytesToHex(bytes) {
+  return Array.from(bytes, (b) => b.toString(16).padStart(2, '0')).join('')
+}
+
+function hexToBytes(hex) {
+  const bytes = []
+  for (let i = 0; i < hex.length; i += 2) {
+    bytes.push(parseInt(hex.substr(i, 2), 16))
+  }
+  return bytes
+}
@@ -0,0 +1,138 @@
+package com.kgr.security.loadtest;
+
+import cn.hutool.core.util.HexUtil;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import com.kgr.security.suite.EcdhAesGcmCipherSuite;
+import com.kgr.security.suite.SecureCipherSuite;
+import com.kgr.security.suite.Sm2Sm4CipherSuite;
+import com.kgr.security.util.CryptoUtils;
+import com.kgr.security.util.SecureBufferPool;
+
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 加密套件基准测试，不启动应用，单线程比较各套件在服务端处理一次请求的加解密耗时
+ * 分别测量还原会话密钥（sm2解密 / ECDH协商），以及按报文大小解密请求、加密响应
+ *
+ * java -cp kgr-secure-loadtest-0.0.1.jar -Dloader.main=com.kgr.security.loadtest.CipherSuiteBenchmark \
+ *     org.springframework.boot.loader.PropertiesLauncher --duration=5 --warmup=2 --payloads=small,medium,large
+ * @author kgr
+ */
+public class CipherSuiteBenchmark {
+
+    private static final String AAD_PREFIX = "Timestamp" + System.currentTimeMillis() / 1000;
+
+    /**
+     * 预先生成的密钥请求头数量，轮流使用
+     */
+    private static final int WRAPPED_KEYS = 64;
+
+    /**
+     * 防止结果被JIT优化掉
+     */
+    private static volatile long sink;
+
+    public static void main(String[] args) {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        SecureBufferPool pool = new SecureBufferPool(1024 * 1024, 8, 8);
+
+        KeyPair sm2 = CryptoUtils.createKeyPairSM2();
+        String sm2PublicKey = CryptoUtils.getSm2PublicQ(sm2);
+        KeyPair ecdh = CryptoUtils.createKeyPairECDH();
+        String ecdhPublicKey = CryptoUtils.encodeKey(ecdh.getPublic());
+
+        List<Fixture> fixtures = new ArrayList<>();
+        fixtures.add(new Fixture(new Sm2Sm4CipherSuite(CryptoUtils.getSm2PrivateD(sm2)), key -> {
+            String sm4Key = IdUtil.simpleUUID();
+            System.arraycopy(HexUtil.decodeHex(sm4Key), 0, key, 0, CryptoUtils.SM4_KEY_LENGTH);
+            return CryptoUtils.sm2Encrypt(sm4Key, sm2PublicKey);
+        }));
+        fixtures.add(new Fixture(new EcdhAesGcmCipherSuite(CryptoUtils.encodeKey(ecdh.getPrivate())),
+                key -> CryptoUtils.ecdhWrapKey(ecdhPublicKey, key)));
+
+        System.out.printf("duration=%ds, warmup=%ds, java=%s%n", options.getDuration(), options.getWarmup(), System.getProperty("java.version"));
+        System.out.printf("%-14s %10s %12s %12s %12s %12s %10s%n",
+                "suite", "payload", "unwrap(us)", "decrypt(us)", "encrypt(us)", "request(us)", "MB/s");
+
+        for (Fixture fixture : fixtures) {
+            run(fixture, options, pool);
+        }
+    }
+
+    private static void run(Fixture fixture, LoadTestOptions options, SecureBufferPool pool) {
+        SecureCipherSuite suite = fixture.suite;
+
+        // 调用方生成的密钥请求头，服务端逐个还原
+        String[] wrappedKeys = new String[WRAPPED_KEYS];
+        byte[] sessionKey = new byte[CryptoUtils.SM4_KEY_LENGTH];
+        for (int i = 0; i < WRAPPED_KEYS; i++) {
+            wrappedKeys[i] = fixture.wrapper.apply(sessionKey);
+        }
+        byte[] unwrapped = new byte[CryptoUtils.SM4_KEY_LENGTH];
+        int[] index = {0};
+        Runnable unwrap = () -> {
+            suite.unwrapKey(wrappedKeys[index[0]++ & (WRAPPED_KEYS - 1)], unwrapped);
+            sink += unwrapped[0];
+        };
+        double unwrapNanos = measure(unwrap, options);
+
+        for (Integer payload : options.getPayloads().keySet()) {
+            String text = StrUtil.repeat('x', payload);
+            String cipherText = suite.encrypt(text, sessionKey, AAD_PREFIX, pool);
+
+            double decryptNanos = measure(() -> sink += suite.decrypt(cipherText, sessionKey, AAD_PREFIX, pool).length, options);
+            double encryptNanos = measure(() -> sink += suite.encrypt(text, sessionKey, AAD_PREFIX, pool).length(), options);
+
+            // 请求和响应各处理一次报文
+            double throughput = payload * 2 / ((decryptNanos + encryptNanos) / TimeUnit.SECONDS.toNanos(1)) / (1024 * 1024);
+            System.out.printf("%-14s %10d %12.2f %12.2f %12.2f %12.2f %10.1f%n",
+                    suite.getSuite(),
+                    payload,
+                    unwrapNanos / 1000,
+                    decryptNanos / 1000,
+                    encryptNanos / 1000,
+                    (unwrapNanos + decryptNanos + encryptNanos) / 1000,
+                    throughput);
+        }
+    }
+
+    /**
+     * 先预热，再在限定时间内重复执行
+     * @return 平均每次耗时（纳秒）
+     */
+    private static double measure(Runnable operation, LoadTestOptions options) {
+        repeat(operation, options.getWarmup());
+        return repeat(operation, options.getDuration());
+    }
+
+    private static double repeat(Runnable operation, int seconds) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        long count = 0;
+        do {
+            operation.run();
+            count++;
+        } while (System.nanoTime() < deadline);
+        return (System.nanoTime() - start) / (double) count;
+    }
+
+    private static final class Fixture {
+
+        private final SecureCipherSuite suite;
+
+        /**
+         * 调用方生成会话密钥，写入参数并返回密钥请求头
+         */
+        private final Function<byte[], String> wrapper;
+
+        Fixture(SecureCipherSuite suite, Function<byte[], String> wrapper) {
+            this.suite = suite;
+            this.wrapper = wrapper;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.kgr.security.loadtest;
+
+import lombok.Data;
+
+/**
+ * 压测请求参数
+ * @author kgr
+ */
+@Data
+public class EchoVO {
+
+    private String username;
+
+    private Long userId;
+
+    /**
+     * 用于调节报文大小的填充内容
+     */
+    private String content;
+}
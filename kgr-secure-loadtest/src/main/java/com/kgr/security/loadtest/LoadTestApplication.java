@@ -0,0 +1,11 @@
+package com.kgr.security.loadtest;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * 压测用的示例应用，由 LoadTestRunner 在同一进程中启动
+ * @author kgr
+ */
+@SpringBootApplication
+public class LoadTestApplication {
+}
@@ -0,0 +1,228 @@
+package com.kgr.security.loadtest;
+
+import cn.hutool.core.util.HexUtil;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import com.kgr.security.annotation.CipherSuite;
+import com.kgr.security.config.SecureProperties;
+import com.kgr.security.config.SecureResponseBodyAdvice;
+import com.kgr.security.util.CryptoUtils;
+import com.kgr.security.util.SecureBufferPool;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 压测客户端，按模式生成加密请求并发送
+ * @author kgr
+ */
+public class LoadTestClient {
+
+    private final String baseUrl;
+
+    private final String publicKey;
+
+    /**
+     * ECDH_AES_GCM 套件的服务端公钥
+     */
+    private final String ecdhPublicKey;
+
+    private final SecureProperties secureProperties;
+
+    private final SecureBufferPool bufferPool = new SecureBufferPool(1024 * 1024, 8, 8);
+
+    public LoadTestClient(String baseUrl, String publicKey, String ecdhPublicKey, SecureProperties secureProperties) {
+        this.baseUrl = baseUrl;
+        this.publicKey = publicKey;
+        this.ecdhPublicKey = ecdhPublicKey;
+        this.secureProperties = secureProperties;
+    }
+
+    /**
+     * 预先生成的请求，压测时重复发送
+     */
+    public static class PreparedRequest {
+
+        private final String method;
+        private final String url;
+        private final Map<String, String> headers = new LinkedHashMap<>();
+        private byte[] body;
+
+        /**
+         * 解密响应用的sm4密钥，不加密时为空
+         */
+        private String responseKey;
+
+        /**
+         * gcm模式解密响应用的套件和会话密钥，不使用gcm时为空
+         */
+        private CipherSuite responseSuite;
+        private byte[] responseSessionKey;
+
+        /**
+         * 用于校验响应
+         */
+        private final String username;
+
+        PreparedRequest(String method, String url, String username) {
+            this.method = method;
+            this.url = url;
+            this.username = username;
+        }
+    }
+
+    /**
+     * 响应体，gcm模式的时间戳在响应体中
+     */
+    public static class Response {
+
+        private final String body;
+
+        Response(String body) {
+            this.body = body;
+        }
+    }
+
+    /**
+     * 按模式生成请求
+     * @param mode 模式
+     * @param vo 请求参数
+     */
+    public PreparedRequest prepare(LoadTestMode mode, EchoVO vo) {
+        String json = JSONUtil.toJsonStr(vo);
+        String sm4Key = IdUtil.simpleUUID();
+        PreparedRequest request;
+
+        switch (mode) {
+            case PLAIN:
+                request = new PreparedRequest("POST", baseUrl + "/plain/echo", vo.getUsername());
+                request.headers.put("Content-Type", "application/json");
+                request.body = json.getBytes(StandardCharsets.UTF_8);
+                break;
+            case SM2:
+                request = new PreparedRequest("GET", baseUrl + "/secure/echo?data=" + CryptoUtils.sm2Encrypt(json, publicKey), vo.getUsername());
+                request.responseKey = secureProperties.getHeaderEncryptKeyValue();
+                break;
+            case SM2_SM4:
+                request = new PreparedRequest("GET", baseUrl + "/secure/echo?data=" + CryptoUtils.sm4Encrypt(json, sm4Key), vo.getUsername());
+                request.headers.put(secureProperties.getHeaderEncryptKeyName(), CryptoUtils.sm2Encrypt(sm4Key, publicKey));
+                request.responseKey = sm4Key;
+                break;
+            case SIGNED:
+                long timestamp = System.currentTimeMillis() / 1000;
+                request = new PreparedRequest("POST", baseUrl + "/secure/signed", vo.getUsername());
+                request.headers.put("Content-Type", "application/json");
+                request.headers.put(secureProperties.getHeaderEncryptKeyName(), CryptoUtils.sm2Encrypt(sm4Key, publicKey));
+                request.headers.put("Sign", CryptoUtils.sm4Encrypt(secureProperties.getSignPrefix() + timestamp + json, sm4Key));
+                request.headers.put("Timestamp", String.valueOf(timestamp));
+                request.body = JSONUtil.createObj().set("requestData", CryptoUtils.sm4Encrypt(json, sm4Key)).toString().getBytes(StandardCharsets.UTF_8);
+                request.responseKey = sm4Key;
+                break;
+            case SM4_GCM:
+                request = aead(vo, json, CipherSuite.SM2_SM4, HexUtil.decodeHex(sm4Key), CryptoUtils.sm2Encrypt(sm4Key, publicKey));
+                break;
+            case AES_GCM:
+                byte[] sessionKey = new byte[CryptoUtils.SM4_KEY_LENGTH];
+                String ephemeralKey = CryptoUtils.ecdhWrapKey(ecdhPublicKey, sessionKey);
+                request = aead(vo, json, CipherSuite.ECDH_AES_GCM, sessionKey, ephemeralKey);
+                break;
+            default:
+                throw new IllegalArgumentException("不支持的模式：" + mode);
+        }
+        return request;
+    }
+
+    /**
+     * gcm模式的post请求，时间戳作为附加数据，不需要签名
+     */
+    private PreparedRequest aead(EchoVO vo, String json, CipherSuite suite, byte[] sessionKey, String wrappedKey) {
+        long timestamp = System.currentTimeMillis() / 1000;
+        String aadPrefix = secureProperties.getSignPrefix() + timestamp;
+        PreparedRequest request = new PreparedRequest("POST", baseUrl + "/secure/aead", vo.getUsername());
+        request.headers.put("Content-Type", "application/json");
+        request.headers.put(CipherSuite.HEADER, suite.name());
+        request.headers.put(secureProperties.getHeaderEncryptKeyName(), wrappedKey);
+        request.headers.put("Timestamp", String.valueOf(timestamp));
+        String requestData = suite == CipherSuite.SM2_SM4
+                ? CryptoUtils.sm4GcmEncrypt(json, sessionKey, aadPrefix, bufferPool)
+                : CryptoUtils.aesGcmEncrypt(json, sessionKey, aadPrefix, bufferPool);
+        request.body = JSONUtil.createObj().set("requestData", requestData).toString().getBytes(StandardCharsets.UTF_8);
+        request.responseSuite = suite;
+        request.responseSessionKey = sessionKey;
+        return request;
+    }
+
+    /**
+     * 发送请求
+     * @return 响应
+     */
+    public Response send(PreparedRequest request) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(request.url).openConnection();
+        connection.setRequestMethod(request.method);
+        connection.setConnectTimeout(5000);
+        connection.setReadTimeout(30000);
+        request.headers.forEach(connection::setRequestProperty);
+
+        if (Objects.nonNull(request.body)) {
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(request.body.length);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(request.body);
+            }
+        }
+
+        int status = connection.getResponseCode();
+        InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        String body = Objects.isNull(in) ? "" : readFully(in);
+        if (status != 200) {
+            throw new IOException("HTTP " + status + ": " + StrUtil.maxLength(body, 200));
+        }
+        return new Response(body);
+    }
+
+    /**
+     * 校验响应能正确解密并与请求一致
+     */
+    public void verify(PreparedRequest request, Response response) {
+        JSONObject json = JSONUtil.parseObj(response.body);
+        JSONObject data;
+        if (Objects.nonNull(request.responseSuite)) {
+            // 与浏览器一样从响应体中取时间戳
+            String aadPrefix = secureProperties.getSignPrefix() + json.getStr(SecureResponseBodyAdvice.TIMESTAMP_FIELD);
+            byte[] plain = request.responseSuite == CipherSuite.SM2_SM4
+                    ? CryptoUtils.sm4GcmDecrypt(json.getStr("data"), request.responseSessionKey, aadPrefix, bufferPool)
+                    : CryptoUtils.aesGcmDecrypt(json.getStr("data"), request.responseSessionKey, aadPrefix, bufferPool);
+            data = JSONUtil.parseObj(new String(plain, StandardCharsets.UTF_8));
+        } else if (Objects.nonNull(request.responseKey)) {
+            data = JSONUtil.parseObj(CryptoUtils.sm4Decrypt(json.getStr("data"), request.responseKey));
+        } else {
+            data = json.getJSONObject("data");
+        }
+
+        if (!request.username.equals(data.getStr("username"))) {
+            throw new IllegalStateException("响应校验失败：" + StrUtil.maxLength(response.body, 200));
+        }
+    }
+
+    private static String readFully(InputStream in) throws IOException {
+        try (InputStream input = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.kgr.security.loadtest;
+
+import com.kgr.security.annotation.CipherMode;
+import com.kgr.security.annotation.CipherSuite;
+import com.kgr.security.annotation.SecureTransmission;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 各压测模式对应的接口
+ * @author kgr
+ */
+@RestController
+public class LoadTestController {
+
+    /**
+     * 不加密，作为基准
+     */
+    @PostMapping("/plain/echo")
+    public Result<EchoVO> plain(@RequestBody EchoVO vo) {
+        return Result.ok(vo);
+    }
+
+    /**
+     * get请求，data参数为sm2密文或sm4密文（请求头带sm2加密的sm4密钥）
+     */
+    @SecureTransmission(decrypt = true, encrypt = true)
+    @GetMapping("/secure/echo")
+    public Result<EchoVO> get(EchoVO vo) {
+        return Result.ok(vo);
+    }
+
+    /**
+     * post请求，sm2加密的sm4密钥 + sm4密文 + 签名
+     */
+    @SecureTransmission(decrypt = true, encrypt = true)
+    @PostMapping("/secure/signed")
+    public Result<EchoVO> signed(@RequestBody EchoVO vo) {
+        return Result.ok(vo);
+    }
+
+    /**
+     * post请求，gcm模式，允许国密和 ECDH_AES_GCM 两种套件
+     */
+    @SecureTransmission(decrypt = true, encrypt = true, mode = CipherMode.GCM, suites = {CipherSuite.SM2_SM4, CipherSuite.ECDH_AES_GCM})
+    @PostMapping("/secure/aead")
+    public Result<EchoVO> aead(@RequestBody EchoVO vo) {
+        return Result.ok(vo);
+    }
+}
@@ -0,0 +1,38 @@
+package com.kgr.security.loadtest;
+
+/**
+ * 压测模式
+ * @author kgr
+ */
+public enum LoadTestMode {
+
+    /**
+     * 不加密
+     */
+    PLAIN,
+
+    /**
+     * get请求，data参数直接sm2加密
+     */
+    SM2,
+
+    /**
+     * get请求，sm2加密sm4密钥，data参数sm4加密
+     */
+    SM2_SM4,
+
+    /**
+     * post请求，sm2加密sm4密钥，请求体sm4加密并签名
+     */
+    SIGNED,
+
+    /**
+     * post请求，国密套件，sm2加密sm4密钥，请求体sm4-gcm加密
+     */
+    SM4_GCM,
+
+    /**
+     * post请求，ECDH_AES_GCM 套件，请求头带ECDH临时公钥，请求体aes-gcm加密
+     */
+    AES_GCM
+}
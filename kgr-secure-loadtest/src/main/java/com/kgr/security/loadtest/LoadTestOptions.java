@@ -0,0 +1,116 @@
+package com.kgr.security.loadtest;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 压测参数，命令行格式为 --name=value，其余参数原样交给 Spring Boot
+ * @author kgr
+ */
+@Getter
+public class LoadTestOptions {
+
+    /**
+     * 并发数
+     */
+    private int concurrency = 32;
+
+    /**
+     * 每个模式的压测时长（秒）
+     */
+    private int duration = 30;
+
+    /**
+     * 每个模式的预热时长（秒）
+     */
+    private int warmup = 5;
+
+    /**
+     * 每种报文预先生成的请求数
+     */
+    private int variants = 32;
+
+    private List<LoadTestMode> modes = new ArrayList<>(Arrays.asList(LoadTestMode.values()));
+
+    /**
+     * 报文大小（字节） -> 权重
+     */
+    private Map<Integer, Integer> payloads = parsePayloads("small:70,medium:25,large:5");
+
+    /**
+     * hgrm 文件输出目录
+     */
+    private String output = "target/loadtest";
+
+    public static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                continue;
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (name) {
+                case "concurrency":
+                    options.concurrency = Integer.parseInt(value);
+                    break;
+                case "duration":
+                    options.duration = Integer.parseInt(value);
+                    break;
+                case "warmup":
+                    options.warmup = Integer.parseInt(value);
+                    break;
+                case "variants":
+                    options.variants = Integer.parseInt(value);
+                    break;
+                case "modes":
+                    options.modes = new ArrayList<>();
+                    for (String mode : value.split(",")) {
+                        options.modes.add(LoadTestMode.valueOf(mode.trim().toUpperCase(Locale.ROOT)));
+                    }
+                    break;
+                case "payloads":
+                    options.payloads = parsePayloads(value);
+                    break;
+                case "output":
+                    options.output = value;
+                    break;
+                default:
+                    break;
+            }
+        }
+        return options;
+    }
+
+    /**
+     * 格式为 大小:权重，大小可以是 small(256) / medium(4096) / large(65536) 或字节数
+     */
+    private static Map<Integer, Integer> parsePayloads(String value) {
+        Map<Integer, Integer> payloads = new LinkedHashMap<>();
+        for (String item : value.split(",")) {
+            String[] parts = item.trim().split(":");
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+            payloads.merge(payloadSize(parts[0].trim()), weight, Integer::sum);
+        }
+        return payloads;
+    }
+
+    private static int payloadSize(String name) {
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case "small":
+                return 256;
+            case "medium":
+                return 4096;
+            case "large":
+                return 65536;
+            default:
+                return Integer.parseInt(name);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.kgr.security.loadtest;
+
+import cn.hutool.core.util.StrUtil;
+import com.kgr.security.config.SecureProperties;
+import com.kgr.security.util.CryptoUtils;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 端到端压测入口
+ * 同一进程内启动示例应用（内嵌Tomcat），再用固定并发的客户端线程按模式发送加密请求，
+ * 记录每个模式的吞吐量和延迟分位数（HdrHistogram），不依赖任何外部服务
+ *
+ * java -jar kgr-secure-loadtest-0.0.1.jar --concurrency=64 --duration=30 --modes=plain,signed --payloads=small:70,large:30
+ * @author kgr
+ */
+public class LoadTestRunner {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+
+        // HttpURLConnection 默认每个地址只保持5个长连接
+        System.setProperty("http.maxConnections", String.valueOf(options.getConcurrency()));
+
+        // 每次运行生成新的sm2和ECDH密钥对
+        KeyPair keyPair = CryptoUtils.createKeyPairSM2();
+        KeyPair ecdhKeyPair = CryptoUtils.createKeyPairECDH();
+        List<String> appArgs = new ArrayList<>(Arrays.asList(args));
+        appArgs.add("--kgr.secure.secret-key=" + CryptoUtils.getSm2PrivateD(keyPair));
+        appArgs.add("--kgr.secure.suite.allowed=SM2_SM4,ECDH_AES_GCM");
+        appArgs.add("--kgr.secure.suite.ecdh-private-key=" + CryptoUtils.encodeKey(ecdhKeyPair.getPrivate()));
+
+        ConfigurableApplicationContext context = SpringApplication.run(LoadTestApplication.class, appArgs.toArray(new String[0]));
+        try {
+            String port = context.getEnvironment().getProperty("local.server.port");
+            LoadTestClient client = new LoadTestClient("http://127.0.0.1:" + port,
+                    CryptoUtils.getSm2PublicQ(keyPair),
+                    CryptoUtils.encodeKey(ecdhKeyPair.getPublic()),
+                    context.getBean(SecureProperties.class));
+
+            File output = new File(options.getOutput());
+            output.mkdirs();
+
+            System.out.printf("concurrency=%d, duration=%ds, warmup=%ds, payloads=%s%n",
+                    options.getConcurrency(), options.getDuration(), options.getWarmup(), options.getPayloads());
+            System.out.printf("%-8s %10s %8s %12s %10s %10s %10s %10s %10s%n",
+                    "mode", "requests", "errors", "req/s", "p50(ms)", "p90(ms)", "p99(ms)", "p99.9(ms)", "max(ms)");
+
+            for (LoadTestMode mode : options.getModes()) {
+                run(client, mode, options, output);
+            }
+        } finally {
+            context.close();
+        }
+    }
+
+    private static void run(LoadTestClient client, LoadTestMode mode, LoadTestOptions options, File output) throws Exception {
+        List<LoadTestClient.PreparedRequest> requests = prepare(client, mode, options);
+
+        // 预热，不记录
+        execute(client, requests, options.getConcurrency(), options.getWarmup(), null, new LongAdder());
+
+        Recorder recorder = new Recorder(3);
+        LongAdder errors = new LongAdder();
+        execute(client, requests, options.getConcurrency(), options.getDuration(), recorder, errors);
+
+        // 单位为微秒
+        Histogram histogram = recorder.getIntervalHistogram();
+        System.out.printf("%-8s %10d %8d %12.1f %10.2f %10.2f %10.2f %10.2f %10.2f%n",
+                mode,
+                histogram.getTotalCount(),
+                errors.sum(),
+                histogram.getTotalCount() / (double) options.getDuration(),
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+
+        try (PrintStream out = new PrintStream(new File(output, mode.name().toLowerCase() + ".hgrm"), "UTF-8")) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    /**
+     * 按报文权重预先生成请求，每种报文先发送一次校验响应
+     */
+    private static List<LoadTestClient.PreparedRequest> prepare(LoadTestClient client, LoadTestMode mode, LoadTestOptions options) throws Exception {
+        List<LoadTestClient.PreparedRequest> requests = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> payload : options.getPayloads().entrySet()) {
+            List<LoadTestClient.PreparedRequest> variants = new ArrayList<>(options.getVariants());
+            for (int i = 0; i < options.getVariants(); i++) {
+                EchoVO vo = new EchoVO();
+                vo.setUsername("user-" + i);
+                vo.setUserId((long) i);
+                vo.setContent(StrUtil.repeat('x', payload.getKey()));
+                variants.add(client.prepare(mode, vo));
+            }
+
+            LoadTestClient.PreparedRequest first = variants.get(0);
+            client.verify(first, client.send(first));
+
+            for (int i = 0; i < payload.getValue(); i++) {
+                requests.addAll(variants);
+            }
+        }
+        return requests;
+    }
+
+    private static void execute(LoadTestClient client, List<LoadTestClient.PreparedRequest> requests, int concurrency, int seconds,
+                                Recorder recorder, LongAdder errors) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        CountDownLatch latch = new CountDownLatch(concurrency);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        for (int i = 0; i < concurrency; i++) {
+            executor.execute(() -> {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        LoadTestClient.PreparedRequest request = requests.get(ThreadLocalRandom.current().nextInt(requests.size()));
+                        long start = System.nanoTime();
+                        try {
+                            client.send(request);
+                            if (recorder != null) {
+                                recorder.recordValue((System.nanoTime() - start) / 1000);
+                            }
+                        } catch (Exception e) {
+                            errors.increment();
+                        }
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executor.shutdown();
+    }
+}
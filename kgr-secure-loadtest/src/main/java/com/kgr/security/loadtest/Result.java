@@ -0,0 +1,23 @@
+package com.kgr.security.loadtest;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 通用返回，data 字段会被 SecureResponseBodyAdvice 加密
+ * @author kgr
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Result<T> {
+
+    private Integer code;
+
+    private T data;
+
+    public static <T> Result<T> ok(T data) {
+        return new Result<>(200, data);
+    }
+}
@@ -0,0 +1,24 @@
+package com.kgr.security.annotation;
+
+/**
+ * sm4加密模式
+ * @author kgr
+ */
+public enum CipherMode {
+
+    /**
+     * 使用配置文件中的 kgr.secure.cipher-mode
+     */
+    DEFAULT,
+
+    /**
+     * sm4-ecb，post请求另外用 Sign 头做签名验证
+     */
+    ECB,
+
+    /**
+     * sm4-gcm，一次运算完成加密和完整性校验，不需要 Sign 头；
+     * 密文为 十六进制(12字节nonce + 密文 + 16字节tag)，附加数据为 签名前缀 + 时间戳 + nonce的十六进制
+     */
+    GCM
+}
@@ -0,0 +1,25 @@
+package com.kgr.security.annotation;
+
+/**
+ * 加密套件，调用方通过 Encrypt-Suite 请求头协商，不传时为 SM2_SM4
+ * @author kgr
+ */
+public enum CipherSuite {
+
+    /**
+     * 国密，sm2加密sm4密钥，sm4-ecb + Sign 或 sm4-gcm（见 CipherMode），浏览器使用
+     */
+    SM2_SM4,
+
+    /**
+     * 调用方用临时公钥与服务端做ECDH（P-256 或 X25519）协商aes-128密钥，数据使用aes-gcm，
+     * 由JDK自带实现（AES-NI/CLMUL指令加速），适合集群内部可信服务间调用；
+     * 密钥请求头为调用方临时公钥（Base64的X.509），密文格式与sm4-gcm相同
+     */
+    ECDH_AES_GCM;
+
+    /**
+     * 协商加密套件的请求头
+     */
+    public static final String HEADER = "Encrypt-Suite";
+}
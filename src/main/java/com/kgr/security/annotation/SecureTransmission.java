@@ -21,4 +21,14 @@ public @interface SecureTransmission {
      * 是否解密参数，默认否
      */
     boolean decrypt() default false;
+
+    /**
+     * sm4加密模式，默认使用配置文件中的 kgr.secure.cipher-mode
+     */
+    CipherMode mode() default CipherMode.DEFAULT;
+
+    /**
+     * 接口允许协商的加密套件，默认只允许国密；还需在 kgr.secure.suite.allowed 中启用
+     */
+    CipherSuite[] suites() default {CipherSuite.SM2_SM4};
 }
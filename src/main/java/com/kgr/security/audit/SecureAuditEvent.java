@@ -0,0 +1,79 @@
+package com.kgr.security.audit;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 加解密审计事件，不包含任何报文内容
+ * @author kgr
+ */
+@Getter
+@Builder
+@ToString
+public class SecureAuditEvent {
+
+    /**
+     * 请求地址，如 POST /api/test
+     */
+    private final String endpoint;
+
+    /**
+     * 处理方法，如 UserController#save
+     */
+    private final String handler;
+
+    private final Action action;
+
+    private final Outcome outcome;
+
+    /**
+     * 加解密耗时（纳秒）
+     */
+    private final long latencyNanos;
+
+    /**
+     * 输入报文长度（字符）
+     */
+    private final int inputSize;
+
+    /**
+     * 输出报文长度（字符），失败时为 -1
+     */
+    private final int outputSize;
+
+    /**
+     * 失败原因的异常类型，成功时为空
+     */
+    private final String failureCause;
+
+    /**
+     * 失败原因的异常信息，成功时为空
+     */
+    private final String failureMessage;
+
+    /**
+     * 事件发生时间（毫秒）
+     */
+    private final long timestamp;
+
+    public enum Action {
+        /**
+         * 请求解密
+         */
+        DECRYPT_REQUEST,
+        /**
+         * 响应加密
+         */
+        ENCRYPT_RESPONSE,
+        /**
+         * 批量请求
+         */
+        BATCH
+    }
+
+    public enum Outcome {
+        SUCCESS,
+        FAILURE
+    }
+}
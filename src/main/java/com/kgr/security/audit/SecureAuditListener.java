@@ -0,0 +1,15 @@
+package com.kgr.security.audit;
+
+/**
+ * 加解密审计事件监听，注册为 Spring Bean 即可生效
+ * 事件在独立的审计线程中回调，实现中不要做长时间阻塞的操作
+ * @author kgr
+ */
+public interface SecureAuditListener {
+
+    /**
+     * 收到审计事件
+     * @param event 审计事件
+     */
+    void onEvent(SecureAuditEvent event);
+}
@@ -0,0 +1,76 @@
+package com.kgr.security.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * @description: 无锁环形队列，多个生产者、单个消费者
+ * 生产者通过CAS抢占序号后写入槽位，队列满时直接放弃；消费者按序号读取并清空槽位
+ */
+class AuditRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+
+    private final int capacity;
+
+    private final int mask;
+
+    /**
+     * 下一个写入序号
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * 下一个读取序号，只由消费者修改
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    AuditRingBuffer(int size) {
+        // 容量取不小于size的2的幂，序号与mask相与即为槽位
+        int capacity = 1;
+        while (capacity < size) {
+            capacity <<= 1;
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * 写入元素，队列已满返回false
+     */
+    boolean offer(E element) {
+        long sequence;
+        do {
+            sequence = tail.get();
+            if (sequence - head.get() >= capacity) {
+                return false;
+            }
+        } while (!tail.compareAndSet(sequence, sequence + 1));
+
+        slots.lazySet((int) sequence & mask, element);
+        return true;
+    }
+
+    /**
+     * 读取元素，队列为空或生产者尚未写完返回null，只允许单个消费者调用
+     */
+    E poll() {
+        long sequence = head.get();
+        if (sequence >= tail.get()) {
+            return null;
+        }
+        int index = (int) sequence & mask;
+        E element = slots.get(index);
+        if (element == null) {
+            return null;
+        }
+        slots.lazySet(index, null);
+        head.lazySet(sequence + 1);
+        return element;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+}
@@ -1,8 +1,13 @@
 package com.kgr.security.config;
 
 import cn.hutool.json.JSONUtil;
+import com.kgr.security.annotation.CipherMode;
+import com.kgr.security.annotation.CipherSuite;
 import com.kgr.security.annotation.SecureTransmission;
+import com.kgr.security.audit.SecureAuditEvent;
+import com.kgr.security.suite.SecureCipherSuite;
 import com.kgr.security.util.CryptoUtils;
+import com.kgr.security.util.SecureBufferPool;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
@@ -18,6 +23,7 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 
 import javax.servlet.http.HttpServletRequest;
 import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -34,6 +40,16 @@ public class GetDeleteDecryptAspect {
 
     private final SecureProperties secureProperties;
 
+    private final SecureCryptoExecutor secureCryptoExecutor;
+
+    private final SecureAuditPublisher secureAuditPublisher;
+
+    private final SecureBufferPool secureBufferPool;
+
+    private final SecureRequestBodyAdvice secureRequestBodyAdvice;
+
+    private final SecureCipherSuites secureCipherSuites;
+
     /**
      * 对get、delete方法进行解密
      * @param point
@@ -49,12 +65,14 @@ public class GetDeleteDecryptAspect {
         // 获取到请求的参数列表
         Object[] args = point.getArgs();
         // 是否需要解密
-        if (method.isAnnotationPresent(SecureTransmission.class) && method.getAnnotation(SecureTransmission.class).decrypt()) {
+        // 批量请求分发的子请求参数已是明文
+        // 解密失败时直接抛出，不能带着密文参数继续执行接口
+        if (method.isAnnotationPresent(SecureTransmission.class) && method.getAnnotation(SecureTransmission.class).decrypt() && !SecureBatchController.isBatchDispatch()) {
             try {
-                decrypt(args);
-            } catch (Exception e) {
-                e.printStackTrace();
+                decrypt(args, method);
+            } catch (RuntimeException e) {
                 log.error("切面解密异常, method :【" + method.getName() + "】, 异常：" + e.getMessage());
+                throw e;
             }
         }
         // 执行将解密的结果交给控制器进行处理，并返回处理结果
@@ -65,33 +83,66 @@ public class GetDeleteDecryptAspect {
      * 前端对请求参数进行加密，最终将这个加密的字符串已 localhost:8080?data=xxx这样的方式进行传递
      * data的数据进行解密最终得到解密后的数据
      * @param args
-     * @throws Exception
+     * @param method 被调用的接口方法
      */
-    public void decrypt(Object[] args) {
+    public void decrypt(Object[] args, Method method) {
         ServletRequestAttributes sc = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
         HttpServletRequest request = sc.getRequest();
         String data = request.getParameter("data");
-        log.info("待解密字符串{}: ", data);
-
         if (ObjectUtils.isEmpty(data)) {
             return;
         }
 
+        long start = System.nanoTime();
+
         // 使用Optional从请求头中获取 sm4对称密钥 的值
         String sm4Key = Optional.ofNullable(request.getHeader(secureProperties.getHeaderEncryptKeyName())).orElse(null);
 
-        if(Objects.isNull(sm4Key)) {
-            // 没有对称密钥，就直接进行 sm2 的非对称解密
-            data = CryptoUtils.sm2Decrypt(data, secureProperties.getSecretKey());
-        }else
-        {
-            // 将请求头中的sm4对应值 先用sm2解密，然后再用解密后的sm4对数据进行解密
-            String sm4DecryptData = CryptoUtils.sm2Decrypt(sm4Key, secureProperties.getSecretKey());
-            data = CryptoUtils.sm4Decrypt(data, sm4DecryptData);
-        }
+        String cipherData = data;
+        try {
+            SecureTransmission secureTransmission = method.getAnnotation(SecureTransmission.class);
+            SecureCipherSuite suite = secureCipherSuites.resolve(request.getHeader(CipherSuite.HEADER), secureTransmission);
+            CipherMode mode = secureCipherSuites.resolveCipherMode(suite, secureTransmission.mode());
+
+            // gcm模式必须带密钥和时间戳，时间戳作为附加数据校验
+            Long timestamp = null;
+            if (mode == CipherMode.GCM) {
+                if (Objects.isNull(sm4Key)) {
+                    throw new RuntimeException("请求密钥不允许为空");
+                }
+                timestamp = Optional.ofNullable(request.getHeader("Timestamp"))
+                        .filter(value -> !value.trim().isEmpty())
+                        .map(Long::valueOf)
+                        .orElseThrow(() -> new RuntimeException("时间戳不允许为空"));
+                secureRequestBodyAdvice.checkTimestamp(timestamp);
+            }
+            Long gcmTimestamp = timestamp;
+
+            data = secureCryptoExecutor.execute(cipherData.length(), () -> {
+                if(Objects.isNull(sm4Key)) {
+                    // 没有对称密钥，就直接进行 sm2 的非对称解密
+                    return CryptoUtils.sm2Decrypt(cipherData, secureProperties.getSecretKey());
+                }
+                // 由加密套件还原会话密钥（国密套件为sm2解密sm4密钥），再对数据进行解密
+                byte[] sm4DecryptData = secureBufferPool.acquire(CryptoUtils.SM4_KEY_LENGTH);
+                try {
+                    suite.unwrapKey(sm4Key, sm4DecryptData);
+                    if (mode == CipherMode.GCM) {
+                        return new String(secureRequestBodyAdvice.decrypt(suite, mode, cipherData, sm4DecryptData, null, gcmTimestamp), StandardCharsets.UTF_8);
+                    }
+                    return CryptoUtils.sm4Decrypt(cipherData, sm4DecryptData, secureBufferPool);
+                } finally {
+                    secureBufferPool.release(sm4DecryptData);
+                }
+            });
 
-        // 并替换原本的参数
-        args[0] = JSONUtil.toBean(data, args[0].getClass());
+            // 并替换原本的参数
+            args[0] = JSONUtil.toBean(data, args[0].getClass());
+        } catch (RuntimeException e) {
+            secureAuditPublisher.failure(SecureAuditEvent.Action.DECRYPT_REQUEST, method, start, cipherData.length(), e);
+            throw e;
+        }
+        secureAuditPublisher.success(SecureAuditEvent.Action.DECRYPT_REQUEST, method, start, cipherData.length(), data.length());
 
     }
 }
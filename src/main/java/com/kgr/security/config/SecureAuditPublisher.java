@@ -0,0 +1,217 @@
+package com.kgr.security.config;
+
+import com.kgr.security.audit.SecureAuditEvent;
+import com.kgr.security.audit.SecureAuditListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.HttpServletRequest;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * @description: 审计事件发布
+ * 请求线程只把事件写入无锁环形队列，由单独的审计线程回调 SecureAuditListener；
+ * 成功事件按比例采样，失败事件全部记录；未注册监听时不产生任何事件
+ */
+
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "kgr.secure", value = "enabled", havingValue = "true")
+public class SecureAuditPublisher implements DisposableBean {
+
+    /**
+     * 空闲时自旋让出CPU的次数，之后休眠等待唤醒
+     */
+    private static final int IDLE_SPINS = 100;
+
+    /**
+     * 单次休眠上限，仅作为漏唤醒时的兜底
+     */
+    private static final long MAX_PARK_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final List<SecureAuditListener> listeners;
+
+    private final double successSampleRate;
+
+    private final AuditRingBuffer<SecureAuditEvent> buffer;
+
+    private final Thread worker;
+
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile boolean running = true;
+
+    /**
+     * 审计线程空闲休眠中，生产者写入后需要唤醒
+     */
+    private volatile boolean idle;
+
+    public SecureAuditPublisher(SecureProperties secureProperties, ObjectProvider<SecureAuditListener> listeners) {
+        this.listeners = listeners.orderedStream().collect(Collectors.toList());
+        this.successSampleRate = secureProperties.getAudit().getSuccessSampleRate();
+
+        if (this.listeners.isEmpty()) {
+            this.buffer = null;
+            this.worker = null;
+            return;
+        }
+
+        this.buffer = new AuditRingBuffer<>(secureProperties.getAudit().getBufferSize());
+        this.worker = new Thread(this::consume, "kgr-secure-audit");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * 记录成功事件（按比例采样）
+     * @param action 操作
+     * @param handler 处理方法
+     * @param startNanos 开始时间 System.nanoTime()
+     * @param inputSize 输入报文长度
+     * @param outputSize 输出报文长度
+     */
+    public void success(SecureAuditEvent.Action action, Method handler, long startNanos, int inputSize, int outputSize) {
+        if (Objects.isNull(buffer) || !sampled()) {
+            return;
+        }
+        publish(SecureAuditEvent.builder()
+                .endpoint(currentEndpoint())
+                .handler(handlerName(handler))
+                .action(action)
+                .outcome(SecureAuditEvent.Outcome.SUCCESS)
+                .latencyNanos(System.nanoTime() - startNanos)
+                .inputSize(inputSize)
+                .outputSize(outputSize)
+                .timestamp(System.currentTimeMillis())
+                .build());
+    }
+
+    /**
+     * 记录失败事件（全部记录）
+     * @param action 操作
+     * @param handler 处理方法
+     * @param startNanos 开始时间 System.nanoTime()
+     * @param inputSize 输入报文长度
+     * @param cause 失败原因
+     */
+    public void failure(SecureAuditEvent.Action action, Method handler, long startNanos, int inputSize, Throwable cause) {
+        if (Objects.isNull(buffer)) {
+            return;
+        }
+        publish(SecureAuditEvent.builder()
+                .endpoint(currentEndpoint())
+                .handler(handlerName(handler))
+                .action(action)
+                .outcome(SecureAuditEvent.Outcome.FAILURE)
+                .latencyNanos(System.nanoTime() - startNanos)
+                .inputSize(inputSize)
+                .outputSize(-1)
+                .failureCause(cause.getClass().getName())
+                .failureMessage(cause.getMessage())
+                .timestamp(System.currentTimeMillis())
+                .build());
+    }
+
+    /**
+     * 因队列已满被丢弃的事件数
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * 等待回调的事件数
+     */
+    public int getPendingCount() {
+        return Objects.isNull(buffer) ? 0 : buffer.size();
+    }
+
+    private boolean sampled() {
+        return successSampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < successSampleRate;
+    }
+
+    private void publish(SecureAuditEvent event) {
+        if (!buffer.offer(event)) {
+            dropped.increment();
+            return;
+        }
+        if (idle) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    private void consume() {
+        int spins = 0;
+        while (running) {
+            SecureAuditEvent event = buffer.poll();
+            if (Objects.isNull(event)) {
+                // 短暂自旋后休眠，由生产者写入时唤醒，空闲时不再定时轮询
+                if (++spins < IDLE_SPINS) {
+                    Thread.yield();
+                    continue;
+                }
+                idle = true;
+                // 设置标记后再检查一次，避免错过生产者的唤醒
+                if (buffer.size() == 0 && running) {
+                    LockSupport.parkNanos(MAX_PARK_NANOS);
+                }
+                idle = false;
+                continue;
+            }
+            spins = 0;
+            dispatch(event);
+        }
+
+        // 停止前把剩余事件处理完
+        SecureAuditEvent event;
+        while (Objects.nonNull(event = buffer.poll())) {
+            dispatch(event);
+        }
+    }
+
+    private void dispatch(SecureAuditEvent event) {
+        for (SecureAuditListener listener : listeners) {
+            try {
+                listener.onEvent(event);
+            } catch (Exception e) {
+                log.warn("审计事件监听异常, listener :【" + listener.getClass().getName() + "】, 异常：" + e.getMessage());
+            }
+        }
+    }
+
+    private static String currentEndpoint() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return null;
+        }
+        HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+        return request.getMethod() + " " + request.getRequestURI();
+    }
+
+    private static String handlerName(Method handler) {
+        return Objects.isNull(handler) ? null : handler.getDeclaringClass().getSimpleName() + "#" + handler.getName();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (Objects.isNull(worker)) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(worker);
+        worker.join(TimeUnit.SECONDS.toMillis(5));
+    }
+}
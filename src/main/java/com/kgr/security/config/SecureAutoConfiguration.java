@@ -1,7 +1,10 @@
 package com.kgr.security.config;
 
+import com.kgr.security.util.SecureBufferPool;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 
@@ -26,4 +29,14 @@ public class SecureAutoConfiguration {
         }
     }
 
+    /**
+     * 加解密缓冲区池
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "kgr.secure", value = "enabled", havingValue = "true")
+    public SecureBufferPool secureBufferPool(SecureProperties secureProperties) {
+        SecureProperties.BufferPool bufferPool = secureProperties.getBufferPool();
+        return new SecureBufferPool(bufferPool.getMaxBufferSize(), bufferPool.getMaxPerClass(), bufferPool.getStripes());
+    }
+
 }
@@ -0,0 +1,298 @@
+package com.kgr.security.config;
+
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import com.kgr.security.annotation.CipherMode;
+import com.kgr.security.annotation.CipherSuite;
+import com.kgr.security.annotation.SecureTransmission;
+import com.kgr.security.audit.SecureAuditEvent;
+import com.kgr.security.suite.SecureCipherSuite;
+import com.kgr.security.util.CryptoUtils;
+import com.kgr.security.util.SecureBufferPool;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * @description: 批量加密请求
+ * 一次sm2解密、一次签名验证，解出N个子请求后分发给各自的 @SecureTransmission 接口，结果合并后整体加密返回
+ * 协商的加密套件需在 kgr.secure.suite.allowed 中启用，且只分发到允许该套件的接口
+ * 子请求直接交给 DispatcherServlet，不经过Servlet Filter，因此只分发到 kgr.secure.batch.allowed-paths 中显式列出的路径
+ *
+ * 请求体格式为{"requestData": "加密的内容"}，明文为
+ * [{"id": "1", "method": "POST", "path": "/api/test", "query": "a=1", "body": {...}}]
+ * 返回格式为{"data": "加密的内容"}，明文为
+ * [{"id": "1", "status": 200, "body": {...}}]
+ */
+
+@Slf4j
+@RestController
+@ConditionalOnProperty(prefix = "kgr.secure", value = {"enabled", "batch.enabled"}, havingValue = "true")
+public class SecureBatchController {
+
+    /**
+     * 子请求标记，存在该属性时各 advice 和切面不再重复加解密
+     */
+    public static final String BATCH_DISPATCH_ATTRIBUTE = SecureBatchController.class.getName() + ".DISPATCH";
+
+    private final SecureProperties secureProperties;
+
+    private final SecureRequestBodyAdvice secureRequestBodyAdvice;
+
+    private final SecureCryptoExecutor secureCryptoExecutor;
+
+    private final SecureAuditPublisher secureAuditPublisher;
+
+    private final SecureBufferPool secureBufferPool;
+
+    private final SecureCipherSuites secureCipherSuites;
+
+    private final ObjectProvider<DispatcherServlet> dispatcherServlet;
+
+    private final ObjectProvider<RequestMappingHandlerMapping> handlerMapping;
+
+    /**
+     * 未开启并行分发时为空
+     */
+    private final ObjectProvider<SecureBatchExecutor> batchExecutor;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public SecureBatchController(SecureProperties secureProperties,
+                                 SecureRequestBodyAdvice secureRequestBodyAdvice,
+                                 SecureCryptoExecutor secureCryptoExecutor,
+                                 SecureAuditPublisher secureAuditPublisher,
+                                 SecureBufferPool secureBufferPool,
+                                 SecureCipherSuites secureCipherSuites,
+                                 ObjectProvider<DispatcherServlet> dispatcherServlet,
+                                 @Qualifier("requestMappingHandlerMapping") ObjectProvider<RequestMappingHandlerMapping> handlerMapping,
+                                 ObjectProvider<SecureBatchExecutor> batchExecutor) {
+        this.secureProperties = secureProperties;
+        this.secureRequestBodyAdvice = secureRequestBodyAdvice;
+        this.secureCryptoExecutor = secureCryptoExecutor;
+        this.secureAuditPublisher = secureAuditPublisher;
+        this.secureBufferPool = secureBufferPool;
+        this.secureCipherSuites = secureCipherSuites;
+        this.dispatcherServlet = dispatcherServlet;
+        this.handlerMapping = handlerMapping;
+        this.batchExecutor = batchExecutor;
+    }
+
+    /**
+     * 当前请求是否为批量接口分发的子请求
+     */
+    public static boolean isBatchDispatch() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return Objects.nonNull(attributes) && Objects.nonNull(attributes.getAttribute(BATCH_DISPATCH_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST));
+    }
+
+    @PostMapping("${kgr.secure.batch.path:/secure/batch}")
+    public Map<String, Object> batch(@RequestBody String requestBody, HttpServletRequest request, HttpServletResponse response) {
+
+        long start = System.nanoTime();
+        int inputSize = 0;
+        byte[] sm4DecryptData = secureBufferPool.acquire(CryptoUtils.SM4_KEY_LENGTH);
+        try {
+            String sm4Key = requireHeader(request, secureProperties.getHeaderEncryptKeyName(), "请求密钥不允许为空");
+            SecureCipherSuite suite = secureCipherSuites.resolve(request.getHeader(CipherSuite.HEADER), null);
+            CipherMode mode = secureCipherSuites.resolveCipherMode(suite, CipherMode.DEFAULT);
+            // gcm模式由tag保证完整性，不需要签名
+            String sign = mode == CipherMode.GCM ? null : requireHeader(request, "Sign", "签名不允许为空");
+            Long timestamp = Long.valueOf(requireHeader(request, "Timestamp", "时间戳不允许为空"));
+
+            secureRequestBodyAdvice.checkTimestamp(timestamp);
+
+            // 1. 整批只还原一次会话密钥，国密套件为sm2解密sm4密钥
+            suite.unwrapKey(sm4Key, sm4DecryptData);
+
+            // 2. 整批只做一次sm4解密和签名验证
+            String requestData = secureRequestBodyAdvice.easpData(requestBody);
+            inputSize = requestData.length();
+            byte[] plainData = executeWithKey(requestData.length(), sm4DecryptData,
+                    key -> secureRequestBodyAdvice.decrypt(suite, mode, requestData, key, sign, timestamp));
+
+            JSONArray items = JSONUtil.parseArray(new String(plainData, StandardCharsets.UTF_8));
+            if (items.size() > secureProperties.getBatch().getMaxSize()) {
+                throw new RuntimeException("批量请求数量超出限制：" + secureProperties.getBatch().getMaxSize());
+            }
+
+            // 3. 分发子请求，结果按请求顺序返回
+            List<JSONObject> results = dispatchAll(items, suite.getSuite(), request, response);
+
+            Map<String, Object> result = new HashMap<>(4);
+            String responseData = JSONUtil.toJsonStr(results);
+            if (mode == CipherMode.GCM) {
+                // 签名前缀 + 响应时间戳 作为附加数据，时间戳放在响应体中，同时通过响应头返回
+                long responseTimestamp = System.currentTimeMillis() / 1000;
+                response.setHeader("Timestamp", String.valueOf(responseTimestamp));
+                result.put(SecureResponseBodyAdvice.TIMESTAMP_FIELD, responseTimestamp);
+                String aadPrefix = secureProperties.getSignPrefix() + responseTimestamp;
+                result.put("data", executeWithKey(responseData.length(), sm4DecryptData, key -> suite.encrypt(responseData, key, aadPrefix, secureBufferPool)));
+            } else {
+                result.put("data", executeWithKey(responseData.length(), sm4DecryptData, key -> CryptoUtils.sm4Encrypt(responseData, key, secureBufferPool)));
+            }
+
+            secureAuditPublisher.success(SecureAuditEvent.Action.BATCH, null, start, inputSize, result.get("data").toString().length());
+            return result;
+        } catch (RuntimeException e) {
+            secureAuditPublisher.failure(SecureAuditEvent.Action.BATCH, null, start, inputSize, e);
+            throw e;
+        } finally {
+            secureBufferPool.release(sm4DecryptData);
+        }
+    }
+
+    /**
+     * 卸载的加解密任务使用自己的密钥副本，任务结束时清零；
+     * 等待超时后请求线程会把池中的密钥清零归还，仍在运行的任务不能再读取它
+     */
+    private <T> T executeWithKey(int payloadSize, byte[] key, Function<byte[], T> task) {
+        byte[] copy = Arrays.copyOf(key, CryptoUtils.SM4_KEY_LENGTH);
+        return secureCryptoExecutor.execute(payloadSize, () -> {
+            try {
+                return task.apply(copy);
+            } finally {
+                Arrays.fill(copy, (byte) 0);
+            }
+        });
+    }
+
+    /**
+     * 子请求在请求线程中创建并校验，并行分发时工作线程不再读取外层请求
+     */
+    private List<JSONObject> dispatchAll(JSONArray items, CipherSuite suite, HttpServletRequest request, HttpServletResponse response) {
+        List<JSONObject> results = new ArrayList<>(items.size());
+        List<BatchSubRequest> subRequests = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            JSONObject item = items.getJSONObject(i);
+            JSONObject result = new JSONObject();
+            result.set("id", item.get("id"));
+            results.add(result);
+            subRequests.add(prepare(item, suite, request, result));
+        }
+
+        SecureBatchExecutor executor = batchExecutor.getIfAvailable();
+        if (Objects.isNull(executor) || items.size() < 2) {
+            for (int i = 0; i < items.size(); i++) {
+                dispatch(subRequests.get(i), response, results.get(i));
+            }
+            return results;
+        }
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            BatchSubRequest subRequest = subRequests.get(i);
+            JSONObject result = results.get(i);
+            if (Objects.isNull(subRequest)) {
+                continue;
+            }
+            try {
+                futures.add(CompletableFuture.runAsync(() -> dispatch(subRequest, response, result), executor));
+            } catch (RejectedExecutionException e) {
+                // 线程池已关闭（应用正在停止），该子请求不再分发
+                log.error("批量子请求提交失败, path :【" + subRequest.getServletPath() + "】, 异常：" + e.getMessage());
+                result.set("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+            }
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        return results;
+    }
+
+    /**
+     * 创建子请求，只允许分发到白名单路径中标注了 @SecureTransmission 且允许当前套件的接口
+     * @return 子请求，不允许分发时返回null并写入状态码
+     */
+    private BatchSubRequest prepare(JSONObject item, CipherSuite suite, HttpServletRequest request, JSONObject result) {
+        String path = item.getStr("path");
+        try {
+            Object body = item.get("body");
+            BatchSubRequest subRequest = new BatchSubRequest(request,
+                    item.getStr("method", "POST"),
+                    path,
+                    item.getStr("query"),
+                    Objects.isNull(body) ? "" : body.toString(),
+                    Arrays.asList(secureProperties.getHeaderEncryptKeyName(), CipherSuite.HEADER, "Sign", "Timestamp"));
+            subRequest.setAttribute(BATCH_DISPATCH_ATTRIBUTE, Boolean.TRUE);
+
+            if (!isAllowedPath(subRequest.getServletPath()) || !isSecureHandler(subRequest, suite)) {
+                result.set("status", HttpStatus.FORBIDDEN.value());
+                return null;
+            }
+            return subRequest;
+        } catch (Exception e) {
+            log.error("批量子请求创建异常, path :【" + path + "】, 异常：" + e.getMessage());
+            result.set("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
+            return null;
+        }
+    }
+
+    /**
+     * 将单个子请求交给 DispatcherServlet 处理
+     */
+    private void dispatch(BatchSubRequest subRequest, HttpServletResponse response, JSONObject result) {
+        if (Objects.isNull(subRequest)) {
+            return;
+        }
+        try {
+            BatchSubResponse subResponse = new BatchSubResponse(response);
+            dispatcherServlet.getObject().service(subRequest, subResponse);
+
+            result.set("status", subResponse.getStatus());
+            result.set("body", subResponse.getBodyAsJson());
+        } catch (Exception e) {
+            log.error("批量子请求分发异常, path :【" + subRequest.getServletPath() + "】, 异常：" + e.getMessage());
+            result.set("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
+        }
+    }
+
+    /**
+     * 子请求不经过Servlet Filter（如 Spring Security 的路径规则），默认全部拒绝，只放行显式配置的路径
+     */
+    private boolean isAllowedPath(String path) {
+        return secureProperties.getBatch().getAllowedPaths().stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    private boolean isSecureHandler(HttpServletRequest subRequest, CipherSuite suite) throws Exception {
+        ServletRequestPathUtils.parseAndCache(subRequest);
+        HandlerExecutionChain chain = handlerMapping.getObject().getHandler(subRequest);
+        if (Objects.isNull(chain) || !(chain.getHandler() instanceof HandlerMethod)) {
+            return false;
+        }
+        SecureTransmission secureTransmission = ((HandlerMethod) chain.getHandler()).getMethodAnnotation(SecureTransmission.class);
+        return Objects.nonNull(secureTransmission) && secureCipherSuites.isAllowed(suite, secureTransmission);
+    }
+
+    private String requireHeader(HttpServletRequest request, String name, String message) {
+        return Optional.ofNullable(request.getHeader(name))
+                .filter(value -> !value.trim().isEmpty())
+                .orElseThrow(() -> new RuntimeException(message));
+    }
+}
@@ -0,0 +1,222 @@
+package com.kgr.security.config;
+
+import org.slf4j.MDC;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.i18n.LocaleContext;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @description: 批量子请求并行分发线程池
+ * 任务在请求线程中提交时捕获 MDC、LocaleContext 和 Spring Security 上下文，在工作线程中恢复，
+ * 并行和顺序分发时接口看到的上下文一致；应用中有唯一的 TaskDecorator 时一并应用。队列满时由请求线程执行，已关闭时抛出 RejectedExecutionException
+ */
+
+@Component
+@ConditionalOnProperty(prefix = "kgr.secure", value = {"enabled", "batch.enabled", "batch.parallel"}, havingValue = "true")
+public class SecureBatchExecutor implements Executor, DisposableBean {
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * 应用提供的任务装饰器，没有时为空
+     */
+    private final TaskDecorator taskDecorator;
+
+    private final LongAdder callerRuns = new LongAdder();
+    private final LongAdder waitCount = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public SecureBatchExecutor(SecureProperties secureProperties, ObjectProvider<TaskDecorator> taskDecorator) {
+        SecureProperties.Batch batch = secureProperties.getBatch();
+        this.taskDecorator = taskDecorator.getIfUnique();
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("kgr-secure-batch-");
+        threadFactory.setDaemon(true);
+        this.executor = new ThreadPoolExecutor(batch.getPoolSize(), batch.getPoolSize(),
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(batch.getQueueCapacity()),
+                threadFactory,
+                (task, pool) -> {
+                    // 已关闭时拒绝，不能丢弃任务，否则等待结果的请求线程会一直阻塞
+                    if (pool.isShutdown()) {
+                        throw new RejectedExecutionException("批量子请求线程池已关闭");
+                    }
+                    // 队列满时由请求线程执行
+                    callerRuns.increment();
+                    task.run();
+                });
+    }
+
+    /**
+     * 必须在请求线程中调用，此时捕获该线程的上下文
+     */
+    @Override
+    public void execute(Runnable command) {
+        Runnable task = Objects.isNull(taskDecorator) ? command : taskDecorator.decorate(command);
+        executor.execute(new ContextTask(task));
+    }
+
+    /**
+     * 等待执行的子请求数
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * 正在执行的子请求数
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public long getCompletedCount() {
+        return executor.getCompletedTaskCount();
+    }
+
+    /**
+     * 因队列已满由请求线程执行的子请求数
+     */
+    public long getCallerRunsCount() {
+        return callerRuns.sum();
+    }
+
+    /**
+     * 已开始执行的子请求数，与 getTotalWaitNanos 一起计算平均等待时间
+     */
+    public long getWaitCount() {
+        return waitCount.sum();
+    }
+
+    /**
+     * 子请求从提交到开始执行的累计等待时间（纳秒）
+     */
+    public long getTotalWaitNanos() {
+        return waitNanos.sum();
+    }
+
+    /**
+     * 子请求从提交到开始执行的最大等待时间（纳秒）
+     */
+    public long getMaxWaitNanos() {
+        return maxWaitNanos.get();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * 创建时捕获提交线程的上下文，执行时设置到当前线程，结束后恢复
+     */
+    private final class ContextTask implements Runnable {
+
+        private final Runnable task;
+        private final long submitTime = System.nanoTime();
+        private final Map<String, String> mdc = MDC.getCopyOfContextMap();
+        private final LocaleContext localeContext = LocaleContextHolder.getLocaleContext();
+        private final Object securityContext = SecurityContexts.get();
+
+        ContextTask(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            long wait = System.nanoTime() - submitTime;
+            waitCount.increment();
+            waitNanos.add(wait);
+            maxWaitNanos.accumulateAndGet(wait, Math::max);
+
+            Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+            LocaleContext previousLocaleContext = LocaleContextHolder.getLocaleContext();
+            Object previousSecurityContext = SecurityContexts.get();
+            try {
+                setMdc(mdc);
+                LocaleContextHolder.setLocaleContext(localeContext);
+                SecurityContexts.set(securityContext);
+                task.run();
+            } finally {
+                setMdc(previousMdc);
+                LocaleContextHolder.setLocaleContext(previousLocaleContext);
+                SecurityContexts.set(previousSecurityContext);
+            }
+        }
+
+        private void setMdc(Map<String, String> context) {
+            if (Objects.isNull(context)) {
+                MDC.clear();
+            } else {
+                MDC.setContextMap(context);
+            }
+        }
+    }
+
+    /**
+     * Spring Security 为可选依赖，通过反射读写 SecurityContextHolder
+     */
+    private static final class SecurityContexts {
+
+        private static final Method GET_CONTEXT;
+        private static final Method SET_CONTEXT;
+        private static final Method CLEAR_CONTEXT;
+
+        static {
+            Method getContext = null;
+            Method setContext = null;
+            Method clearContext = null;
+            ClassLoader classLoader = SecureBatchExecutor.class.getClassLoader();
+            if (ClassUtils.isPresent("org.springframework.security.core.context.SecurityContextHolder", classLoader)) {
+                try {
+                    Class<?> holder = ClassUtils.forName("org.springframework.security.core.context.SecurityContextHolder", classLoader);
+                    Class<?> context = ClassUtils.forName("org.springframework.security.core.context.SecurityContext", classLoader);
+                    getContext = holder.getMethod("getContext");
+                    setContext = holder.getMethod("setContext", context);
+                    clearContext = holder.getMethod("clearContext");
+                } catch (ClassNotFoundException | NoSuchMethodException e) {
+                    getContext = null;
+                    setContext = null;
+                    clearContext = null;
+                }
+            }
+            GET_CONTEXT = getContext;
+            SET_CONTEXT = setContext;
+            CLEAR_CONTEXT = clearContext;
+        }
+
+        static Object get() {
+            return Objects.isNull(GET_CONTEXT) ? null : ReflectionUtils.invokeMethod(GET_CONTEXT, null);
+        }
+
+        static void set(Object context) {
+            if (Objects.isNull(GET_CONTEXT)) {
+                return;
+            }
+            if (Objects.isNull(context)) {
+                ReflectionUtils.invokeMethod(CLEAR_CONTEXT, null);
+            } else {
+                ReflectionUtils.invokeMethod(SET_CONTEXT, null, context);
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.kgr.security.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @description: 批量子请求分发线程池指标，引入 micrometer 且开启并行分发后自动注册
+ */
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+@ConditionalOnProperty(prefix = "kgr.secure", value = {"enabled", "batch.enabled", "batch.parallel"}, havingValue = "true")
+public class SecureBatchExecutorMetrics implements MeterBinder {
+
+    private final SecureBatchExecutor secureBatchExecutor;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Tags tags = Tags.of("executor", "batch");
+
+        Gauge.builder("kgr.secure.batch.queued", secureBatchExecutor, SecureBatchExecutor::getQueueDepth)
+                .description("等待执行的批量子请求数")
+                .tags(tags)
+                .register(registry);
+
+        Gauge.builder("kgr.secure.batch.active", secureBatchExecutor, SecureBatchExecutor::getActiveCount)
+                .description("正在执行的批量子请求数")
+                .tags(tags)
+                .register(registry);
+
+        FunctionCounter.builder("kgr.secure.batch.completed", secureBatchExecutor, SecureBatchExecutor::getCompletedCount)
+                .description("已完成的批量子请求数")
+                .tags(tags)
+                .register(registry);
+
+        FunctionCounter.builder("kgr.secure.batch.caller.runs", secureBatchExecutor, SecureBatchExecutor::getCallerRunsCount)
+                .description("因队列已满由请求线程执行的批量子请求数")
+                .tags(tags)
+                .register(registry);
+
+        FunctionTimer.builder("kgr.secure.batch.wait", secureBatchExecutor,
+                        SecureBatchExecutor::getWaitCount, SecureBatchExecutor::getTotalWaitNanos, TimeUnit.NANOSECONDS)
+                .description("批量子请求从提交到开始执行的等待时间")
+                .tags(tags)
+                .register(registry);
+
+        Gauge.builder("kgr.secure.batch.wait.max", secureBatchExecutor, executor -> executor.getMaxWaitNanos() / 1_000_000.0)
+                .description("批量子请求最大等待时间（毫秒）")
+                .tags(tags)
+                .baseUnit("milliseconds")
+                .register(registry);
+    }
+}
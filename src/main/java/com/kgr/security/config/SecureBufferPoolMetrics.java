@@ -0,0 +1,54 @@
+package com.kgr.security.config;
+
+import com.kgr.security.util.SecureBufferPool;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * @description: 加解密缓冲区池指标，引入 micrometer 后自动注册
+ */
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+@ConditionalOnProperty(prefix = "kgr.secure", value = "enabled", havingValue = "true")
+public class SecureBufferPoolMetrics implements MeterBinder {
+
+    private final SecureBufferPool secureBufferPool;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("kgr.secure.buffer.pooled", secureBufferPool, SecureBufferPool::getPooledCount)
+                .description("池中空闲的缓冲区数")
+                .register(registry);
+
+        Gauge.builder("kgr.secure.buffer.pooled.bytes", secureBufferPool, SecureBufferPool::getPooledBytes)
+                .description("池中空闲缓冲区的总字节数")
+                .baseUnit("bytes")
+                .register(registry);
+
+        Gauge.builder("kgr.secure.buffer.outstanding", secureBufferPool, SecureBufferPool::getOutstandingCount)
+                .description("已借出未归还的缓冲区数")
+                .register(registry);
+
+        FunctionCounter.builder("kgr.secure.buffer.acquire", secureBufferPool, SecureBufferPool::getHitCount)
+                .description("从池中复用的次数")
+                .tag("result", "hit")
+                .register(registry);
+
+        FunctionCounter.builder("kgr.secure.buffer.acquire", secureBufferPool, SecureBufferPool::getMissCount)
+                .description("新分配缓冲区的次数")
+                .tag("result", "miss")
+                .register(registry);
+
+        FunctionCounter.builder("kgr.secure.buffer.discarded", secureBufferPool, SecureBufferPool::getDiscardedCount)
+                .description("归还时被丢弃的缓冲区数")
+                .register(registry);
+    }
+}
@@ -0,0 +1,65 @@
+package com.kgr.security.config;
+
+import cn.hutool.core.util.StrUtil;
+import com.kgr.security.annotation.CipherSuite;
+import com.kgr.security.annotation.SecureTransmission;
+import com.kgr.security.suite.SecureCipherSuite;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Objects;
+
+/**
+ * @description: 加密套件校验
+ * 在接口执行前校验 Encrypt-Suite 请求头，套件未启用或接口不允许时返回 400，
+ * 避免只加密响应的接口先执行业务、到加密响应时才失败
+ */
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "kgr.secure", value = "enabled", havingValue = "true")
+public class SecureCipherSuiteInterceptor implements HandlerInterceptor, WebMvcConfigurer {
+
+    private final SecureProperties secureProperties;
+
+    private final SecureCipherSuites secureCipherSuites;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // 批量请求分发的子请求已在批量接口校验
+        if (!(handler instanceof HandlerMethod) || Objects.nonNull(request.getAttribute(SecureBatchController.BATCH_DISPATCH_ATTRIBUTE))) {
+            return true;
+        }
+        SecureTransmission secureTransmission = ((HandlerMethod) handler).getMethodAnnotation(SecureTransmission.class);
+        if (Objects.isNull(secureTransmission) || !(secureTransmission.encrypt() || secureTransmission.decrypt())) {
+            return true;
+        }
+
+        SecureCipherSuite suite;
+        try {
+            suite = secureCipherSuites.resolve(request.getHeader(CipherSuite.HEADER), secureTransmission);
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        // 只有国密套件可以使用默认密钥
+        if (suite.getSuite() != CipherSuite.SM2_SM4 && StrUtil.isBlank(request.getHeader(secureProperties.getHeaderEncryptKeyName()))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "请求密钥不允许为空");
+        }
+        return true;
+    }
+}
@@ -0,0 +1,98 @@
+package com.kgr.security.config;
+
+import cn.hutool.core.util.StrUtil;
+import com.kgr.security.annotation.CipherMode;
+import com.kgr.security.annotation.CipherSuite;
+import com.kgr.security.annotation.SecureTransmission;
+import com.kgr.security.suite.EcdhAesGcmCipherSuite;
+import com.kgr.security.suite.SecureCipherSuite;
+import com.kgr.security.suite.Sm2Sm4CipherSuite;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * @description: 加密套件协商
+ * 按 Encrypt-Suite 请求头选择套件，套件必须同时在 kgr.secure.suite.allowed 和接口的 @SecureTransmission(suites = ...) 中
+ */
+
+@Component
+@ConditionalOnProperty(prefix = "kgr.secure", value = "enabled", havingValue = "true")
+public class SecureCipherSuites {
+
+    private final SecureProperties secureProperties;
+
+    private final List<CipherSuite> allowed;
+
+    private final Map<CipherSuite, SecureCipherSuite> suites = new EnumMap<>(CipherSuite.class);
+
+    public SecureCipherSuites(SecureProperties secureProperties) {
+        this.secureProperties = secureProperties;
+        this.allowed = secureProperties.getSuite().getAllowed();
+
+        suites.put(CipherSuite.SM2_SM4, new Sm2Sm4CipherSuite(secureProperties.getSecretKey()));
+        if (allowed.contains(CipherSuite.ECDH_AES_GCM)) {
+            String ecdhPrivateKey = secureProperties.getSuite().getEcdhPrivateKey();
+            if (StrUtil.isBlank(ecdhPrivateKey)) {
+                throw new IllegalStateException("启用 ECDH_AES_GCM 套件需要配置 kgr.secure.suite.ecdh-private-key");
+            }
+            suites.put(CipherSuite.ECDH_AES_GCM, new EcdhAesGcmCipherSuite(ecdhPrivateKey));
+        }
+    }
+
+    /**
+     * 按请求头协商加密套件
+     * @param header Encrypt-Suite 请求头，为空时使用 SM2_SM4
+     * @param annotation 接口上的注解，为null时只校验服务端配置（批量接口）
+     * @return 加密套件
+     */
+    public SecureCipherSuite resolve(String header, SecureTransmission annotation) {
+        CipherSuite suite = parse(header);
+        if (!isAllowed(suite, annotation)) {
+            throw new RuntimeException("不允许的加密套件：" + suite);
+        }
+        return suites.get(suite);
+    }
+
+    /**
+     * 套件是否同时被服务端和接口允许
+     * @param suite 加密套件
+     * @param annotation 接口上的注解，为null时只校验服务端配置
+     */
+    public boolean isAllowed(CipherSuite suite, SecureTransmission annotation) {
+        if (!allowed.contains(suite) || !suites.containsKey(suite)) {
+            return false;
+        }
+        return Objects.isNull(annotation) || Arrays.asList(annotation.suites()).contains(suite);
+    }
+
+    /**
+     * 国密套件使用接口或配置的加密模式，其余套件只支持 GCM
+     * @param suite 加密套件
+     * @param mode 接口上的加密模式
+     * @return ECB 或 GCM
+     */
+    public CipherMode resolveCipherMode(SecureCipherSuite suite, CipherMode mode) {
+        return suite.getSuite() == CipherSuite.SM2_SM4 ? secureProperties.resolveCipherMode(mode) : CipherMode.GCM;
+    }
+
+    /**
+     * 解析请求头，为空时使用 SM2_SM4
+     */
+    public CipherSuite parse(String header) {
+        if (StrUtil.isBlank(header)) {
+            return CipherSuite.SM2_SM4;
+        }
+        try {
+            return CipherSuite.valueOf(header.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("不支持的加密套件：" + header);
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.kgr.security.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.lang.reflect.Method;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * @description: 加解密执行器
+ * 大报文的sm2/sm4运算交给独立的有界线程池执行，作为加解密的隔离舱：限制同时执行和排队的任务数，超出时直接拒绝。
+ * 请求线程仍同步等待结果，不会因此被释放，作用是限制加解密占用的CPU，繁忙时快速失败而不是让所有请求一起变慢。
+ * JDK 21及以上使用虚拟线程，由信号量限制并发数；否则使用固定大小的平台线程池
+ * 拒绝和超时都抛出 503 的 ResponseStatusException，调用方不能吞掉后继续返回明文
+ */
+
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "kgr.secure", value = "enabled", havingValue = "true")
+public class SecureCryptoExecutor implements DisposableBean {
+
+    private final SecureProperties.Offload offload;
+
+    /**
+     * 未开启卸载时为空，全部在请求线程中执行
+     */
+    private final ExecutorService executor;
+
+    /**
+     * 准入许可：并发数 + 队列长度
+     */
+    private final Semaphore admission;
+
+    /**
+     * 运行许可：仅虚拟线程模式下使用
+     */
+    private final Semaphore running;
+
+    private final boolean virtual;
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder waitCount = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public SecureCryptoExecutor(SecureProperties secureProperties) {
+        this.offload = secureProperties.getOffload();
+
+        if (!Boolean.TRUE.equals(offload.getEnabled())) {
+            this.executor = null;
+            this.admission = null;
+            this.running = null;
+            this.virtual = false;
+            return;
+        }
+
+        int maxConcurrency = offload.getMaxConcurrency();
+        this.admission = new Semaphore(maxConcurrency + offload.getQueueCapacity());
+
+        ExecutorService virtualExecutor = Boolean.TRUE.equals(offload.getVirtualThreads()) ? newVirtualThreadExecutor() : null;
+        if (Objects.nonNull(virtualExecutor)) {
+            this.executor = virtualExecutor;
+            this.running = new Semaphore(maxConcurrency);
+            this.virtual = true;
+        } else {
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("kgr-secure-crypto-");
+            threadFactory.setDaemon(true);
+            // 队列长度由准入许可限制
+            this.executor = new ThreadPoolExecutor(maxConcurrency, maxConcurrency,
+                    60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(),
+                    threadFactory,
+                    new ThreadPoolExecutor.AbortPolicy());
+            this.running = null;
+            this.virtual = false;
+        }
+        log.debug("加解密卸载已开启, 虚拟线程: {}, 并发数: {}, 队列长度: {}", virtual, maxConcurrency, offload.getQueueCapacity());
+    }
+
+    /**
+     * 执行加解密任务，报文小于阈值或未开启卸载时直接在当前线程执行
+     * @param payloadSize 报文长度
+     * @param task 加解密任务
+     * @return 任务结果
+     * @throws ResponseStatusException 503，队列已满或等待超时
+     */
+    public <T> T execute(int payloadSize, Supplier<T> task) {
+        if (Objects.isNull(executor) || payloadSize < offload.getThreshold()) {
+            return task.get();
+        }
+
+        if (!admission.tryAcquire()) {
+            rejected.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "加解密任务繁忙，请稍后重试");
+        }
+
+        CryptoTask<T> future = new CryptoTask<>(task);
+        queued.incrementAndGet();
+        try {
+            executor.execute(future);
+        } catch (RejectedExecutionException e) {
+            future.cancel(false);
+            rejected.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "加解密任务繁忙，请稍后重试", e);
+        }
+
+        try {
+            return future.get(offload.getTimeout(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            cancel(future);
+            timeouts.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "加解密任务超时");
+        } catch (InterruptedException e) {
+            cancel(future);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("加解密任务被中断");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * 取消任务，尚未开始的任务从平台线程池队列中移除；
+     * 已开始的任务不响应中断，准入许可要等运算真正结束才归还
+     */
+    private void cancel(CryptoTask<?> future) {
+        future.cancel(true);
+        if (executor instanceof ThreadPoolExecutor) {
+            ((ThreadPoolExecutor) executor).remove(future);
+        }
+    }
+
+    /**
+     * 是否使用虚拟线程
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * 等待执行的任务数
+     */
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    /**
+     * 正在执行的任务数
+     */
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getTimeoutCount() {
+        return timeouts.sum();
+    }
+
+    /**
+     * 已开始执行的任务数，与 getTotalWaitNanos 一起计算平均等待时间
+     */
+    public long getWaitCount() {
+        return waitCount.sum();
+    }
+
+    /**
+     * 任务从提交到开始执行的累计等待时间（纳秒）
+     */
+    public long getTotalWaitNanos() {
+        return waitNanos.sum();
+    }
+
+    /**
+     * 任务从提交到开始执行的最大等待时间（纳秒）
+     */
+    public long getMaxWaitNanos() {
+        return maxWaitNanos.get();
+    }
+
+    /**
+     * JDK 21及以上才有虚拟线程，通过反射创建以兼容JDK 8
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (Objects.nonNull(executor)) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * 记录排队、执行状态；任务执行结束，或尚未开始就被取消时归还准入许可
+     */
+    private final class CryptoTask<T> extends FutureTask<T> {
+
+        private final long submitTime = System.nanoTime();
+
+        private final AtomicBoolean dequeued = new AtomicBoolean();
+
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        CryptoTask(Supplier<T> task) {
+            super(task::get);
+        }
+
+        @Override
+        public void run() {
+            started.set(true);
+            if (isDone()) {
+                releaseAdmission();
+                return;
+            }
+            boolean permit = false;
+            try {
+                if (Objects.nonNull(running)) {
+                    running.acquire();
+                    permit = true;
+                }
+                if (dequeue()) {
+                    long wait = System.nanoTime() - submitTime;
+                    waitCount.increment();
+                    waitNanos.add(wait);
+                    maxWaitNanos.accumulateAndGet(wait, Math::max);
+                }
+                active.incrementAndGet();
+                try {
+                    super.run();
+                } finally {
+                    active.decrementAndGet();
+                    completed.increment();
+                }
+            } catch (InterruptedException e) {
+                cancel(false);
+                Thread.currentThread().interrupt();
+            } finally {
+                if (permit) {
+                    running.release();
+                }
+                releaseAdmission();
+            }
+        }
+
+        @Override
+        protected void done() {
+            dequeue();
+            // 已开始的任务被取消时运算仍在继续，由 run 结束时归还
+            if (!started.get()) {
+                releaseAdmission();
+            }
+        }
+
+        private void releaseAdmission() {
+            if (released.compareAndSet(false, true)) {
+                admission.release();
+            }
+        }
+
+        private boolean dequeue() {
+            if (dequeued.compareAndSet(false, true)) {
+                queued.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.kgr.security.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @description: 加解密执行器指标，引入 micrometer 后自动注册
+ */
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+@ConditionalOnProperty(prefix = "kgr.secure", value = "enabled", havingValue = "true")
+public class SecureCryptoExecutorMetrics implements MeterBinder {
+
+    private final SecureCryptoExecutor secureCryptoExecutor;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Tags tags = Tags.of("executor", "crypto", "virtual", String.valueOf(secureCryptoExecutor.isVirtual()));
+
+        Gauge.builder("kgr.secure.executor.queued", secureCryptoExecutor, SecureCryptoExecutor::getQueueDepth)
+                .description("等待执行的加解密任务数")
+                .tags(tags)
+                .register(registry);
+
+        Gauge.builder("kgr.secure.executor.active", secureCryptoExecutor, SecureCryptoExecutor::getActiveCount)
+                .description("正在执行的加解密任务数")
+                .tags(tags)
+                .register(registry);
+
+        FunctionCounter.builder("kgr.secure.executor.completed", secureCryptoExecutor, SecureCryptoExecutor::getCompletedCount)
+                .description("已完成的加解密任务数")
+                .tags(tags)
+                .register(registry);
+
+        FunctionCounter.builder("kgr.secure.executor.rejected", secureCryptoExecutor, SecureCryptoExecutor::getRejectedCount)
+                .description("因队列已满被拒绝的加解密任务数")
+                .tags(tags)
+                .register(registry);
+
+        FunctionCounter.builder("kgr.secure.executor.timeout", secureCryptoExecutor, SecureCryptoExecutor::getTimeoutCount)
+                .description("等待超时的加解密任务数")
+                .tags(tags)
+                .register(registry);
+
+        FunctionTimer.builder("kgr.secure.executor.wait", secureCryptoExecutor,
+                        SecureCryptoExecutor::getWaitCount, SecureCryptoExecutor::getTotalWaitNanos, TimeUnit.NANOSECONDS)
+                .description("加解密任务从提交到开始执行的等待时间")
+                .tags(tags)
+                .register(registry);
+
+        Gauge.builder("kgr.secure.executor.wait.max", secureCryptoExecutor, executor -> executor.getMaxWaitNanos() / 1_000_000.0)
+                .description("加解密任务最大等待时间（毫秒）")
+                .tags(tags)
+                .baseUnit("milliseconds")
+                .register(registry);
+    }
+}
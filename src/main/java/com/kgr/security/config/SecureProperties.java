@@ -1,9 +1,15 @@
 package com.kgr.security.config;
 
+import com.kgr.security.annotation.CipherMode;
+import com.kgr.security.annotation.CipherSuite;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 @Data
 @Component
 @ConfigurationProperties(prefix = "kgr.secure")
@@ -15,4 +21,167 @@ public class SecureProperties {
     private Long signTimeout;
     private String signPrefix;
     private Boolean enabled;
+
+    /**
+     * sm4加密模式，ECB 或 GCM，接口上的 @SecureTransmission(mode = ...) 优先
+     */
+    private CipherMode cipherMode = CipherMode.ECB;
+
+    /**
+     * 批量请求配置
+     */
+    private Batch batch = new Batch();
+
+    /**
+     * 加解密卸载配置
+     */
+    private Offload offload = new Offload();
+
+    /**
+     * 审计事件配置
+     */
+    private Audit audit = new Audit();
+
+    /**
+     * 加解密缓冲区池配置
+     */
+    private BufferPool bufferPool = new BufferPool();
+
+    /**
+     * 加密套件配置
+     */
+    private Suite suite = new Suite();
+
+    /**
+     * 接口上指定了加密模式时使用接口的，否则使用配置的
+     * @param mode 接口上的加密模式
+     * @return ECB 或 GCM
+     */
+    public CipherMode resolveCipherMode(CipherMode mode) {
+        if (mode == null || mode == CipherMode.DEFAULT) {
+            return cipherMode == null || cipherMode == CipherMode.DEFAULT ? CipherMode.ECB : cipherMode;
+        }
+        return mode;
+    }
+
+    @Data
+    public static class Batch {
+
+        /**
+         * 是否开启批量请求接口
+         */
+        private Boolean enabled = false;
+
+        /**
+         * 批量请求接口地址
+         */
+        private String path = "/secure/batch";
+
+        /**
+         * 允许分发的子请求路径（Ant风格，如 /api/dict/**），默认为空即全部拒绝；
+         * 子请求不经过Servlet Filter，只应列出不依赖路径鉴权规则的接口
+         */
+        private List<String> allowedPaths = new ArrayList<>();
+
+        /**
+         * 单次批量请求允许的最大子请求数
+         */
+        private Integer maxSize = 32;
+
+        /**
+         * 是否并行分发子请求
+         */
+        private Boolean parallel = false;
+
+        /**
+         * 并行分发线程数
+         */
+        private Integer poolSize = 8;
+
+        /**
+         * 并行分发等待队列长度，队列满时由当前请求线程执行
+         */
+        private Integer queueCapacity = 256;
+    }
+
+    @Data
+    public static class Offload {
+
+        /**
+         * 是否将大报文的加解密交给独立线程池执行，关闭时在请求线程中执行
+         */
+        private Boolean enabled = false;
+
+        /**
+         * 报文长度（字符）达到该值时才交给线程池执行
+         */
+        private Integer threshold = 64 * 1024;
+
+        /**
+         * 同时执行的加解密任务数
+         */
+        private Integer maxConcurrency = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * 等待执行的任务数上限，超出后直接拒绝
+         */
+        private Integer queueCapacity = 64;
+
+        /**
+         * 请求线程等待加解密结果的超时时间（毫秒）
+         */
+        private Long timeout = 5000L;
+
+        /**
+         * 运行在JDK 21及以上时是否使用虚拟线程
+         */
+        private Boolean virtualThreads = true;
+    }
+
+    @Data
+    public static class Audit {
+
+        /**
+         * 成功事件采样比例（0~1），失败事件全部记录
+         */
+        private Double successSampleRate = 1.0;
+
+        /**
+         * 审计队列长度，队列满时丢弃新事件
+         */
+        private Integer bufferSize = 8192;
+    }
+
+    @Data
+    public static class BufferPool {
+
+        /**
+         * 可复用的最大缓冲区（字节），更大的缓冲区用完即清零丢弃
+         */
+        private Integer maxBufferSize = 1024 * 1024;
+
+        /**
+         * 每个分段中每个尺寸级别最多保留的缓冲区数，为0时不复用只清零
+         */
+        private Integer maxPerClass = 8;
+
+        /**
+         * 分段数，默认CPU核数的2倍
+         */
+        private Integer stripes = Runtime.getRuntime().availableProcessors() * 2;
+    }
+
+    @Data
+    public static class Suite {
+
+        /**
+         * 服务端启用的加密套件，接口上的 @SecureTransmission(suites = ...) 也需要包含
+         */
+        private List<CipherSuite> allowed = new ArrayList<>(Collections.singletonList(CipherSuite.SM2_SM4));
+
+        /**
+         * ECDH_AES_GCM 套件的服务端私钥，Base64的PKCS#8（EC P-256 或 X25519）
+         */
+        private String ecdhPrivateKey;
+    }
 }
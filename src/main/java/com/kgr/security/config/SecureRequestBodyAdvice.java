@@ -2,9 +2,15 @@ package com.kgr.security.config;
 
 import cn.hutool.core.date.DateUnit;
 import cn.hutool.core.date.DateUtil;
+import cn.hutool.crypto.CryptoException;
 import cn.hutool.json.JSONUtil;
+import com.kgr.security.annotation.CipherMode;
+import com.kgr.security.annotation.CipherSuite;
 import com.kgr.security.annotation.SecureTransmission;
+import com.kgr.security.audit.SecureAuditEvent;
+import com.kgr.security.suite.SecureCipherSuite;
 import com.kgr.security.util.CryptoUtils;
+import com.kgr.security.util.SecureBufferPool;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
@@ -17,12 +23,11 @@ import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdvice;
 
-import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -39,6 +44,13 @@ public class SecureRequestBodyAdvice implements RequestBodyAdvice {
 
     private final SecureProperties secureProperties;
 
+    private final SecureCryptoExecutor secureCryptoExecutor;
+
+    private final SecureAuditPublisher secureAuditPublisher;
+
+    private final SecureBufferPool secureBufferPool;
+
+    private final SecureCipherSuites secureCipherSuites;
 
     /**
      * 方法上有SecureTransmission注解的，并且decrypt=true，进入此拦截器
@@ -47,6 +59,10 @@ public class SecureRequestBodyAdvice implements RequestBodyAdvice {
     @Override
     public boolean supports(MethodParameter returnType, Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
 
+        // 批量请求分发的子请求已在批量接口统一解密
+        if (SecureBatchController.isBatchDispatch()) {
+            return false;
+        }
         return returnType.hasMethodAnnotation(SecureTransmission.class) && returnType.getMethodAnnotation(SecureTransmission.class).decrypt();
     }
 
@@ -108,47 +124,60 @@ public class SecureRequestBodyAdvice implements RequestBodyAdvice {
              * 对post提交的加密参数解密
              */
             if (returnType.hasMethodAnnotation(PostMapping.class)) {
-                // 使用Optional从请求头中获取 sm4对称密钥 的值
-                String sm4Key = Optional.ofNullable(inputMessage.getHeaders().get(secureProperties.getHeaderEncryptKeyName()))
-                        .flatMap(keys -> keys.stream().findFirst())
-                        .filter(value -> !value.trim().isEmpty())
-                        .orElseThrow(() -> new RuntimeException("请求密钥不允许为空"));
-
-                String sign = Optional.ofNullable(inputMessage.getHeaders().get("Sign"))
-                        .flatMap(keys -> keys.stream().findFirst())
-                        .filter(value -> !value.trim().isEmpty())
-                        .orElseThrow(() -> new RuntimeException("签名不允许为空"));
-
-                Long timestamp = Optional.ofNullable(inputMessage.getHeaders().get("Timestamp"))
-                        .flatMap(keys -> keys.stream().findFirst())
-                        .filter(value -> !value.trim().isEmpty())
-                        .map(Long::new)
-                        .orElseThrow(() -> new RuntimeException("时间戳不允许为空"));
-
-
-                //重放时间限制（单位秒）
-                long difference = DateUtil.between(DateUtil.date(), DateUtil.date(timestamp * 1000), DateUnit.SECOND);
-
-                if (difference > secureProperties.getSignTimeout()) {
-                    throw new RuntimeException("无效请求, 签名已过期");
+                long start = System.nanoTime();
+                int inputSize = 0;
+                try {
+                    SecureTransmission secureTransmission = returnType.getMethodAnnotation(SecureTransmission.class);
+                    SecureCipherSuite suite = secureCipherSuites.resolve(inputMessage.getHeaders().getFirst(CipherSuite.HEADER), secureTransmission);
+                    CipherMode mode = secureCipherSuites.resolveCipherMode(suite, secureTransmission.mode());
+
+                    // 使用Optional从请求头中获取 sm4对称密钥 的值
+                    String sm4Key = Optional.ofNullable(inputMessage.getHeaders().get(secureProperties.getHeaderEncryptKeyName()))
+                            .flatMap(keys -> keys.stream().findFirst())
+                            .filter(value -> !value.trim().isEmpty())
+                            .orElseThrow(() -> new RuntimeException("请求密钥不允许为空"));
+
+                    // gcm模式由tag保证完整性，不需要签名
+                    String sign = Optional.ofNullable(inputMessage.getHeaders().get("Sign"))
+                            .flatMap(keys -> keys.stream().findFirst())
+                            .filter(value -> !value.trim().isEmpty())
+                            .orElse(null);
+
+                    if (mode == CipherMode.ECB && Objects.isNull(sign)) {
+                        throw new RuntimeException("签名不允许为空");
+                    }
+
+                    Long timestamp = Optional.ofNullable(inputMessage.getHeaders().get("Timestamp"))
+                            .flatMap(keys -> keys.stream().findFirst())
+                            .filter(value -> !value.trim().isEmpty())
+                            .map(Long::new)
+                            .orElseThrow(() -> new RuntimeException("时间戳不允许为空"));
+
+                    checkTimestamp(timestamp);
+
+                    String requestData = easpData(convertInputStreamToString(inputMessage.getBody()));
+                    inputSize = requestData.length();
+
+                    byte[] verifyData = secureCryptoExecutor.execute(requestData.length(), () -> {
+                        // 1. 由加密套件还原会话密钥，国密套件为sm2解密sm4密钥
+                        byte[] sm4DecryptData = secureBufferPool.acquire(CryptoUtils.SM4_KEY_LENGTH);
+                        try {
+                            suite.unwrapKey(sm4Key, sm4DecryptData);
+
+                            // 2. 解密并验证签名
+                            return decrypt(suite, mode, requestData, sm4DecryptData, sign, timestamp);
+                        } finally {
+                            secureBufferPool.release(sm4DecryptData);
+                        }
+                    });
+
+                    this.body = new ByteArrayInputStream(verifyData);
+
+                    secureAuditPublisher.success(SecureAuditEvent.Action.DECRYPT_REQUEST, returnType.getMethod(), start, inputSize, verifyData.length);
+                } catch (Exception e) {
+                    secureAuditPublisher.failure(SecureAuditEvent.Action.DECRYPT_REQUEST, returnType.getMethod(), start, inputSize, e);
+                    throw e;
                 }
-
-                // 1. 将请求头中的sm4对应值 先用sm2解密, 获取sm4的明文
-                String sm4DecryptData = CryptoUtils.sm2Decrypt(sm4Key, secureProperties.getSecretKey());
-
-                // 2. 然后用解密后的sm4对数据进行解密
-                String verifyData = easpData(convertInputStreamToString(inputMessage.getBody()));
-                verifyData = CryptoUtils.sm4Decrypt(verifyData, sm4DecryptData);
-
-                // 3. 解密后参数 重新生成签名来 验证sign, 不要忘记有个前缀
-                String newSign = CryptoUtils.sm4Encrypt(secureProperties.getSignPrefix() + timestamp + verifyData, sm4DecryptData);
-
-                if(!newSign.equals(sign)) {
-                    throw new RuntimeException("无效请求，签名验证失败");
-                }
-
-
-                this.body = new ByteArrayInputStream(verifyData.getBytes(StandardCharsets.UTF_8));
             }
         }
 
@@ -164,6 +193,93 @@ public class SecureRequestBodyAdvice implements RequestBodyAdvice {
 
     }
 
+    /**
+     * 重放时间限制（单位秒）
+     * @param timestamp 时间戳（秒）
+     */
+    public void checkTimestamp(Long timestamp) {
+        long difference = DateUtil.between(DateUtil.date(), DateUtil.date(timestamp * 1000), DateUnit.SECOND);
+
+        if (difference > secureProperties.getSignTimeout()) {
+            throw new RuntimeException("无效请求, 签名已过期");
+        }
+    }
+
+    /**
+     * 按加密套件和模式解密数据并验证完整性
+     * @param suite 加密套件
+     * @param mode 加密模式，ECB 或 GCM，ECB 只用于国密套件
+     * @param requestData 十六进制密文
+     * @param sm4DecryptData 会话密钥，取前16字节
+     * @param sign 签名，GCM模式下不使用
+     * @param timestamp 时间戳（秒）
+     * @return 解密后的明文（UTF-8）
+     */
+    public byte[] decrypt(SecureCipherSuite suite, CipherMode mode, String requestData, byte[] sm4DecryptData, String sign, Long timestamp) {
+        if (mode != CipherMode.GCM) {
+            return decryptAndVerify(requestData, sm4DecryptData, sign, timestamp);
+        }
+        try {
+            // 时间戳作为附加数据，被篡改时tag校验失败
+            return suite.decrypt(requestData, sm4DecryptData, secureProperties.getSignPrefix() + timestamp, secureBufferPool);
+        } catch (CryptoException e) {
+            throw new RuntimeException("无效请求，签名验证失败");
+        }
+    }
+
+    /**
+     * 用sm4明文密钥解密数据并验证签名，中间结果使用缓冲区池，用完清零
+     * @param requestData 十六进制或Base64密文
+     * @param sm4DecryptData sm4明文密钥，取前16字节
+     * @param sign 签名
+     * @param timestamp 时间戳（秒）
+     * @return 解密后的明文（UTF-8）
+     */
+    public byte[] decryptAndVerify(String requestData, byte[] sm4DecryptData, String sign, Long timestamp) {
+
+        byte[] prefix = (secureProperties.getSignPrefix() + timestamp).getBytes(StandardCharsets.UTF_8);
+        int cipherLength = CryptoUtils.cipherTextLength(requestData);
+        int capacity = prefix.length + cipherLength;
+
+        byte[] cipherData = secureBufferPool.acquire(cipherLength);
+        byte[] signData = secureBufferPool.acquire(capacity);
+        byte[] newSign = secureBufferPool.acquire(capacity + CryptoUtils.SM4_KEY_LENGTH);
+        try {
+            // 1. 用解密后的sm4对数据进行解密，明文直接写在签名前缀之后
+            int length = CryptoUtils.decodeCipherText(requestData, cipherData);
+            System.arraycopy(prefix, 0, signData, 0, prefix.length);
+            int plainLength = CryptoUtils.sm4Decrypt(sm4DecryptData, cipherData, length, signData, prefix.length);
+
+            // 2. 解密后参数 重新生成签名来 验证sign, 不要忘记有个前缀
+            int signLength = CryptoUtils.sm4Encrypt(sm4DecryptData, signData, prefix.length + plainLength, newSign);
+
+            if (!signEquals(sign, newSign, signLength)) {
+                throw new RuntimeException("无效请求，签名验证失败");
+            }
+            return Arrays.copyOfRange(signData, prefix.length, prefix.length + plainLength);
+        } finally {
+            secureBufferPool.release(cipherData);
+            secureBufferPool.release(signData);
+            secureBufferPool.release(newSign);
+        }
+    }
+
+    /**
+     * 十六进制签名与计算结果比较，耗时与内容无关
+     */
+    private static boolean signEquals(String sign, byte[] newSign, int length) {
+        if (Objects.isNull(sign) || sign.length() != length * 2) {
+            return false;
+        }
+        int diff = 0;
+        for (int i = 0; i < length; i++) {
+            int high = Character.digit(sign.charAt(i * 2), 16);
+            int low = Character.digit(sign.charAt(i * 2 + 1), 16);
+            diff |= (high | low) < 0 ? 1 : ((high << 4) | low) ^ (newSign[i] & 0xFF);
+        }
+        return diff == 0;
+    }
+
     public String easpData(String requestData) throws RuntimeException {
 
         if (Objects.isNull(requestData) || "".equals(requestData)) {
@@ -180,15 +296,24 @@ public class SecureRequestBodyAdvice implements RequestBodyAdvice {
     }
 
 
-    private String convertInputStreamToString(InputStream inputStream) throws Exception {
-        StringBuilder stringBuilder = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                stringBuilder.append(line);
+    String convertInputStreamToString(InputStream inputStream) throws Exception {
+        byte[] buffer = secureBufferPool.acquire(4096);
+        int length = 0;
+        try (InputStream in = inputStream) {
+            int read;
+            while ((read = in.read(buffer, length, buffer.length - length)) != -1) {
+                length += read;
+                if (length == buffer.length) {
+                    byte[] larger = secureBufferPool.acquire(buffer.length * 2);
+                    System.arraycopy(buffer, 0, larger, 0, length);
+                    secureBufferPool.release(buffer);
+                    buffer = larger;
+                }
             }
+            return new String(buffer, 0, length, StandardCharsets.UTF_8);
+        } finally {
+            secureBufferPool.release(buffer);
         }
-        return stringBuilder.toString();
     }
 
 }
@@ -2,8 +2,13 @@ package com.kgr.security.config;
 
 import cn.hutool.json.JSONObject;
 import cn.hutool.json.JSONUtil;
+import com.kgr.security.annotation.CipherMode;
+import com.kgr.security.annotation.CipherSuite;
 import com.kgr.security.annotation.SecureTransmission;
+import com.kgr.security.audit.SecureAuditEvent;
+import com.kgr.security.suite.SecureCipherSuite;
 import com.kgr.security.util.CryptoUtils;
+import com.kgr.security.util.SecureBufferPool;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -27,9 +32,21 @@ import java.util.Optional;
 @ConditionalOnProperty(prefix = "kgr.secure", value = "enabled", havingValue = "true")
 public class SecureResponseBodyAdvice implements ResponseBodyAdvice {
 
+    /**
+     * gcm模式下响应体中的时间戳字段，与 data 同级，跨域时浏览器读不到自定义响应头
+     */
+    public static final String TIMESTAMP_FIELD = "encryptTimestamp";
 
     private final SecureProperties secureProperties;
 
+    private final SecureCryptoExecutor secureCryptoExecutor;
+
+    private final SecureAuditPublisher secureAuditPublisher;
+
+    private final SecureBufferPool secureBufferPool;
+
+    private final SecureCipherSuites secureCipherSuites;
+
     /**
      * 这个方法用来判断什么样的接口需要加密
      * @param returnType
@@ -38,6 +55,10 @@ public class SecureResponseBodyAdvice implements ResponseBodyAdvice {
      */
     @Override
     public boolean supports(MethodParameter returnType, Class converterType) {
+        // 批量请求分发的子请求由批量接口统一加密
+        if (SecureBatchController.isBatchDispatch()) {
+            return false;
+        }
         return returnType.hasMethodAnnotation(SecureTransmission.class) && returnType.getMethodAnnotation(SecureTransmission.class).encrypt();
 
     }
@@ -55,34 +76,69 @@ public class SecureResponseBodyAdvice implements ResponseBodyAdvice {
      */
     @Override
     public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType, Class selectedConverterType, ServerHttpRequest request, ServerHttpResponse response) {
-        log.info("对方法 :【" + returnType.getMethod().getName() + "】返回数据进行加密");
-
         // 一般返回都是json格式
         JSONObject jsonObject = JSONUtil.parseObj(body);
         Object result = jsonObject.getObj("data", Object.class);
 
         if (Objects.nonNull(result)) {
+            long start = System.nanoTime();
+            int inputSize = 0;
             try {
                 // 使用Optional从请求头中获取 sm4对称密钥 的值
                 String sm4Key = Optional.ofNullable(request.getHeaders().get(secureProperties.getHeaderEncryptKeyName()))
                         .flatMap(keys -> keys.stream().findFirst())
                         .orElse(null);
 
-                if(Objects.isNull(sm4Key)) {
-                    // 没有对称密钥，用默认密钥
-                    sm4Key = secureProperties.getHeaderEncryptKeyValue();
-                }else
-                {
-                    // 先将请求头中的sm4解出来
-                    sm4Key = CryptoUtils.sm2Decrypt(sm4Key, secureProperties.getSecretKey());
+                String text = result.toString();
+                inputSize = text.length();
+
+                SecureTransmission secureTransmission = returnType.getMethodAnnotation(SecureTransmission.class);
+                SecureCipherSuite suite = secureCipherSuites.resolve(request.getHeaders().getFirst(CipherSuite.HEADER), secureTransmission);
+                CipherMode mode = secureCipherSuites.resolveCipherMode(suite, secureTransmission.mode());
+
+                // 默认密钥只用于国密套件
+                if (Objects.isNull(sm4Key) && suite.getSuite() != CipherSuite.SM2_SM4) {
+                    throw new RuntimeException("请求密钥不允许为空");
                 }
 
-                // 用sm4对数据加密
-                result = CryptoUtils.sm4Encrypt(result.toString(), sm4Key);
+                // gcm模式下 签名前缀 + 响应时间戳 作为附加数据，时间戳放在响应体中，同时通过响应头返回
+                String aadPrefix = null;
+                if (mode == CipherMode.GCM) {
+                    long timestamp = System.currentTimeMillis() / 1000;
+                    response.getHeaders().set("Timestamp", String.valueOf(timestamp));
+                    jsonObject.set(TIMESTAMP_FIELD, timestamp);
+                    aadPrefix = secureProperties.getSignPrefix() + timestamp;
+                }
+                String aad = aadPrefix;
+
+                result = secureCryptoExecutor.execute(text.length(), () -> {
+                    if(Objects.isNull(sm4Key)) {
+                        // 没有对称密钥，用默认密钥
+                        return mode == CipherMode.GCM
+                                ? CryptoUtils.sm4GcmEncrypt(text, secureProperties.getHeaderEncryptKeyValue(), aad, secureBufferPool)
+                                : CryptoUtils.sm4Encrypt(text, secureProperties.getHeaderEncryptKeyValue());
+                    }
+
+                    // 先由加密套件还原会话密钥，再对数据加密
+                    byte[] key = secureBufferPool.acquire(CryptoUtils.SM4_KEY_LENGTH);
+                    try {
+                        suite.unwrapKey(sm4Key, key);
+                        return mode == CipherMode.GCM
+                                ? suite.encrypt(text, key, aad, secureBufferPool)
+                                : CryptoUtils.sm4Encrypt(text, key, secureBufferPool);
+                    } finally {
+                        secureBufferPool.release(key);
+                    }
+                });
 
                 jsonObject.set("data", result);
-            } catch (Exception e) {
-                log.error("对方法 :【" + returnType.getMethod().getName() + "】返回数据进行解密出现异常：" + e.getMessage());
+
+                secureAuditPublisher.success(SecureAuditEvent.Action.ENCRYPT_RESPONSE, returnType.getMethod(), start, inputSize, result.toString().length());
+            } catch (RuntimeException e) {
+                // 加密失败时不能返回明文，异常交给spring处理
+                secureAuditPublisher.failure(SecureAuditEvent.Action.ENCRYPT_RESPONSE, returnType.getMethod(), start, inputSize, e);
+                log.error("对方法 :【" + returnType.getMethod().getName() + "】返回数据进行加密出现异常：" + e.getMessage());
+                throw e;
             }
         }
         return jsonObject;
@@ -0,0 +1,44 @@
+package com.kgr.security.suite;
+
+import com.kgr.security.annotation.CipherSuite;
+import com.kgr.security.util.CryptoUtils;
+import com.kgr.security.util.SecureBufferPool;
+
+import java.security.PrivateKey;
+
+/**
+ * ECDH + aes-gcm套件，全部使用JDK自带实现，不经过BouncyCastle
+ * 密钥请求头为调用方临时公钥，与服务端私钥协商出aes-128会话密钥
+ * @author kgr
+ */
+public class EcdhAesGcmCipherSuite implements SecureCipherSuite {
+
+    private final PrivateKey privateKey;
+
+    /**
+     * @param privateKey 服务端ECDH私钥，Base64的PKCS#8（EC P-256 或 X25519）
+     */
+    public EcdhAesGcmCipherSuite(String privateKey) {
+        this.privateKey = CryptoUtils.ecdhPrivateKey(privateKey);
+    }
+
+    @Override
+    public CipherSuite getSuite() {
+        return CipherSuite.ECDH_AES_GCM;
+    }
+
+    @Override
+    public void unwrapKey(String wrappedKey, byte[] output) {
+        CryptoUtils.ecdhDeriveKey(privateKey, wrappedKey, output);
+    }
+
+    @Override
+    public String encrypt(String text, byte[] key, String aadPrefix, SecureBufferPool pool) {
+        return CryptoUtils.aesGcmEncrypt(text, key, aadPrefix, pool);
+    }
+
+    @Override
+    public byte[] decrypt(String text, byte[] key, String aadPrefix, SecureBufferPool pool) {
+        return CryptoUtils.aesGcmDecrypt(text, key, aadPrefix, pool);
+    }
+}
@@ -0,0 +1,44 @@
+package com.kgr.security.suite;
+
+import com.kgr.security.annotation.CipherSuite;
+import com.kgr.security.util.SecureBufferPool;
+
+/**
+ * 加密套件：从请求头还原会话密钥，并用会话密钥做认证加密
+ * 会话密钥统一为16字节，由调用方从缓冲区池借出，用完清零归还
+ * @author kgr
+ */
+public interface SecureCipherSuite {
+
+    /**
+     * 套件名称
+     */
+    CipherSuite getSuite();
+
+    /**
+     * 从密钥请求头还原会话密钥
+     * @param wrappedKey 密钥请求头的值
+     * @param output 输出缓冲区，长度不小于16
+     */
+    void unwrapKey(String wrappedKey, byte[] output);
+
+    /**
+     * 认证加密，附加数据为 aadPrefix + nonce的十六进制
+     * @param text 明文
+     * @param key 会话密钥
+     * @param aadPrefix 附加数据前缀，如 签名前缀 + 时间戳
+     * @param pool 缓冲区池
+     * @return 十六进制(nonce + 密文 + tag)
+     */
+    String encrypt(String text, byte[] key, String aadPrefix, SecureBufferPool pool);
+
+    /**
+     * 认证解密，tag校验失败抛出 CryptoException
+     * @param text 十六进制(nonce + 密文 + tag)
+     * @param key 会话密钥
+     * @param aadPrefix 附加数据前缀，如 签名前缀 + 时间戳
+     * @param pool 缓冲区池
+     * @return 明文（UTF-8）
+     */
+    byte[] decrypt(String text, byte[] key, String aadPrefix, SecureBufferPool pool);
+}
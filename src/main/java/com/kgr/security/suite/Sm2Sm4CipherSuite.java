@@ -0,0 +1,41 @@
+package com.kgr.security.suite;
+
+import com.kgr.security.annotation.CipherSuite;
+import com.kgr.security.util.CryptoUtils;
+import com.kgr.security.util.SecureBufferPool;
+
+/**
+ * 国密套件，sm2解密sm4密钥，sm4-gcm认证加密；sm4-ecb + Sign 的方式仍由 SecureRequestBodyAdvice 处理
+ * @author kgr
+ */
+public class Sm2Sm4CipherSuite implements SecureCipherSuite {
+
+    private final String privateKey;
+
+    /**
+     * @param privateKey sm2私钥
+     */
+    public Sm2Sm4CipherSuite(String privateKey) {
+        this.privateKey = privateKey;
+    }
+
+    @Override
+    public CipherSuite getSuite() {
+        return CipherSuite.SM2_SM4;
+    }
+
+    @Override
+    public void unwrapKey(String wrappedKey, byte[] output) {
+        CryptoUtils.sm2DecryptSm4Key(wrappedKey, privateKey, output);
+    }
+
+    @Override
+    public String encrypt(String text, byte[] key, String aadPrefix, SecureBufferPool pool) {
+        return CryptoUtils.sm4GcmEncrypt(text, key, aadPrefix, pool);
+    }
+
+    @Override
+    public byte[] decrypt(String text, byte[] key, String aadPrefix, SecureBufferPool pool) {
+        return CryptoUtils.sm4GcmDecrypt(text, key, aadPrefix, pool);
+    }
+}
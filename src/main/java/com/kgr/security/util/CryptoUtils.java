@@ -11,17 +11,84 @@ import cn.hutool.crypto.symmetric.AES;
 import cn.hutool.crypto.symmetric.SM4;
 import org.bouncycastle.jcajce.provider.asymmetric.ec.BCECPrivateKey;
 import org.bouncycastle.jcajce.provider.asymmetric.ec.BCECPublicKey;
-
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyAgreement;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
 import java.security.KeyPair;
+import java.security.KeyPairGenerator;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.Provider;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
 
 /**
  * 加密方法工具类
  */
 public class CryptoUtils {
 
+    private static final Provider BC = new BouncyCastleProvider();
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * Base64字符对应的值，同时支持标准和URL安全字符，非法字符为-1
+     */
+    private static final byte[] BASE64 = new byte[128];
+
+    static {
+        Arrays.fill(BASE64, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64[alphabet.charAt(i)] = (byte) i;
+        }
+        BASE64['+'] = 62;
+        BASE64['-'] = 62;
+        BASE64['/'] = 63;
+        BASE64['_'] = 63;
+    }
+
+    /**
+     * sm4密钥长度（字节）
+     */
+    public static final int SM4_KEY_LENGTH = 16;
+
+    /**
+     * gcm nonce长度（字节）
+     */
+    public static final int GCM_NONCE_LENGTH = 12;
+
+    /**
+     * gcm tag长度（字节）
+     */
+    public static final int GCM_TAG_LENGTH = 16;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /**
+     * ecdh密钥依次尝试的算法，XDH（X25519）需JDK 11+
+     */
+    private static final String[] ECDH_KEY_ALGORITHMS = {"EC", "XDH"};
+
+    private static final byte[] ECDH_KDF_LABEL = "kgr-secure-ecdh-aes-gcm".getBytes(StandardCharsets.UTF_8);
+
     /**
      * 国密sm2加密
      *
@@ -165,6 +232,531 @@ public class CryptoUtils {
                 .decryptStr(text);
     }
 
+    /**
+     * 国密sm2解密sm4会话密钥，密钥不经过String，直接写入output的前16字节
+     *
+     * @param text       sm2密文（非压缩）
+     * @param privateKey 私钥
+     * @param output     输出缓冲区，长度不小于16
+     */
+    public static void sm2DecryptSm4Key(String text, String privateKey, byte[] output) {
+        byte[] keyText = SmUtil.sm2(privateKey, null).decryptFromBcd(text, KeyType.PrivateKey);
+        try {
+            if (keyText.length == SM4_KEY_LENGTH * 2) {
+                for (int i = 0; i < SM4_KEY_LENGTH; i++) {
+                    output[i] = (byte) ((hexDigit(keyText[i * 2]) << 4) | hexDigit(keyText[i * 2 + 1]));
+                }
+            } else if (keyText.length == SM4_KEY_LENGTH) {
+                System.arraycopy(keyText, 0, output, 0, SM4_KEY_LENGTH);
+            } else {
+                throw new CryptoException("sm4密钥长度错误");
+            }
+        } finally {
+            Arrays.fill(keyText, (byte) 0);
+        }
+    }
+
+    /**
+     * 国密sm4解密(ECB/PKCS5Padding)，密文为十六进制或Base64，中间结果使用缓冲区池
+     *
+     * @param text 十六进制或Base64密文
+     * @param key  sm4密钥，取前16字节
+     * @param pool 缓冲区池
+     * @return 结果 返回明文
+     */
+    public static String sm4Decrypt(String text, byte[] key, SecureBufferPool pool) {
+        int capacity = cipherTextLength(text);
+        byte[] input = pool.acquire(capacity);
+        byte[] output = pool.acquire(capacity);
+        try {
+            int length = decodeCipherText(text, input);
+            length = sm4Decrypt(key, input, length, output);
+            return new String(output, 0, length, StandardCharsets.UTF_8);
+        } finally {
+            pool.release(input);
+            pool.release(output);
+        }
+    }
+
+    /**
+     * 国密sm4加密(ECB/PKCS5Padding)，中间结果使用缓冲区池
+     *
+     * @param text 内容
+     * @param key  sm4密钥，取前16字节
+     * @param pool 缓冲区池
+     * @return 结果 返回十六进制密文
+     */
+    public static String sm4Encrypt(String text, byte[] key, SecureBufferPool pool) {
+        byte[] input = pool.acquire(text.length() * 3);
+        byte[] output = pool.acquire(text.length() * 3 + SM4_KEY_LENGTH);
+        try {
+            int length = encodeUtf8(text, input);
+            length = sm4Encrypt(key, input, length, output);
+            return encodeHex(output, length);
+        } finally {
+            pool.release(input);
+            pool.release(output);
+        }
+    }
+
+    /**
+     * 国密sm4解密(ECB/PKCS5Padding)
+     *
+     * @param key    sm4密钥，取前16字节
+     * @param input  密文
+     * @param length 密文长度
+     * @param output 输出缓冲区，长度不小于密文长度
+     * @return 明文长度
+     */
+    public static int sm4Decrypt(byte[] key, byte[] input, int length, byte[] output) {
+        return sm4Decrypt(key, input, length, output, 0);
+    }
+
+    /**
+     * 国密sm4解密(ECB/PKCS5Padding)，明文从output的指定位置开始写入
+     *
+     * @param key          sm4密钥，取前16字节
+     * @param input        密文
+     * @param length       密文长度
+     * @param output       输出缓冲区，长度不小于 outputOffset + 密文长度
+     * @param outputOffset 写入位置
+     * @return 明文长度
+     */
+    public static int sm4Decrypt(byte[] key, byte[] input, int length, byte[] output, int outputOffset) {
+        return sm4DoFinal(Cipher.DECRYPT_MODE, key, input, length, output, outputOffset);
+    }
+
+    /**
+     * 国密sm4加密(ECB/PKCS5Padding)
+     *
+     * @param key    sm4密钥，取前16字节
+     * @param input  明文
+     * @param length 明文长度
+     * @param output 输出缓冲区，长度不小于明文长度 + 16
+     * @return 密文长度
+     */
+    public static int sm4Encrypt(byte[] key, byte[] input, int length, byte[] output) {
+        return sm4DoFinal(Cipher.ENCRYPT_MODE, key, input, length, output, 0);
+    }
+
+    private static int sm4DoFinal(int mode, byte[] key, byte[] input, int length, byte[] output, int outputOffset) {
+        try {
+            Cipher cipher = Cipher.getInstance("SM4/ECB/PKCS5Padding", BC);
+            cipher.init(mode, new SecretKeySpec(key, 0, SM4_KEY_LENGTH, "SM4"));
+            return cipher.doFinal(input, 0, length, output, outputOffset);
+        } catch (GeneralSecurityException e) {
+            throw new CryptoException(e);
+        }
+    }
+
+    /**
+     * 国密sm4-gcm加密，随机生成nonce，附加数据为 aadPrefix + nonce的十六进制
+     *
+     * @param text      内容
+     * @param key       sm4密钥，取前16字节
+     * @param aadPrefix 附加数据前缀，如 签名前缀 + 时间戳
+     * @param pool      缓冲区池
+     * @return 结果 返回十六进制(nonce + 密文 + tag)
+     */
+    public static String sm4GcmEncrypt(String text, byte[] key, String aadPrefix, SecureBufferPool pool) {
+        return gcmEncrypt("SM4", text, key, aadPrefix, pool);
+    }
+
+    /**
+     * 国密sm4-gcm加密，使用字符串密钥（32位十六进制或16位字符）
+     *
+     * @param text      内容
+     * @param key       密钥
+     * @param aadPrefix 附加数据前缀
+     * @param pool      缓冲区池
+     * @return 结果 返回十六进制(nonce + 密文 + tag)
+     */
+    public static String sm4GcmEncrypt(String text, String key, String aadPrefix, SecureBufferPool pool) {
+        byte[] keyBytes = getKey(key);
+        if (keyBytes == null) {
+            throw new CryptoException("sm4密钥长度错误");
+        }
+        try {
+            return sm4GcmEncrypt(text, keyBytes, aadPrefix, pool);
+        } finally {
+            Arrays.fill(keyBytes, (byte) 0);
+        }
+    }
+
+    /**
+     * 国密sm4-gcm解密并校验tag，附加数据为 aadPrefix + nonce的十六进制
+     *
+     * @param text      十六进制(nonce + 密文 + tag)
+     * @param key       sm4密钥，取前16字节
+     * @param aadPrefix 附加数据前缀，如 签名前缀 + 时间戳
+     * @param pool      缓冲区池
+     * @return 结果 返回明文（UTF-8），校验失败抛出 CryptoException
+     */
+    public static byte[] sm4GcmDecrypt(String text, byte[] key, String aadPrefix, SecureBufferPool pool) {
+        return gcmDecrypt("SM4", text, key, aadPrefix, pool);
+    }
+
+    /**
+     * 国密sm4-gcm加密
+     *
+     * @param key          sm4密钥，取前16字节
+     * @param nonce        12字节nonce
+     * @param aad          附加数据
+     * @param input        明文
+     * @param length       明文长度
+     * @param output       输出缓冲区，长度不小于 outputOffset + 明文长度 + 16
+     * @param outputOffset 写入位置
+     * @return 密文 + tag 的长度
+     */
+    public static int sm4GcmEncrypt(byte[] key, byte[] nonce, byte[] aad, byte[] input, int length, byte[] output, int outputOffset) {
+        return gcmDoFinal("SM4", Cipher.ENCRYPT_MODE, key, nonce, aad, input, 0, length, output, outputOffset);
+    }
+
+    /**
+     * 国密sm4-gcm解密并校验tag
+     *
+     * @param key         sm4密钥，取前16字节
+     * @param nonce       12字节nonce
+     * @param aad         附加数据
+     * @param input       密文 + tag
+     * @param inputOffset 读取位置
+     * @param length      密文 + tag 的长度
+     * @param output      输出缓冲区，长度不小于 length
+     * @return 明文长度
+     */
+    public static int sm4GcmDecrypt(byte[] key, byte[] nonce, byte[] aad, byte[] input, int inputOffset, int length, byte[] output) {
+        return gcmDoFinal("SM4", Cipher.DECRYPT_MODE, key, nonce, aad, input, inputOffset, length, output, 0);
+    }
+
+    /**
+     * aes-128-gcm加密，格式与sm4-gcm相同，使用JDK自带实现（AES-NI/CLMUL指令加速）
+     *
+     * @param text      内容
+     * @param key       aes密钥，取前16字节
+     * @param aadPrefix 附加数据前缀，如 签名前缀 + 时间戳
+     * @param pool      缓冲区池
+     * @return 结果 返回十六进制(nonce + 密文 + tag)
+     */
+    public static String aesGcmEncrypt(String text, byte[] key, String aadPrefix, SecureBufferPool pool) {
+        return gcmEncrypt("AES", text, key, aadPrefix, pool);
+    }
+
+    /**
+     * aes-128-gcm解密并校验tag，格式与sm4-gcm相同
+     *
+     * @param text      十六进制(nonce + 密文 + tag)
+     * @param key       aes密钥，取前16字节
+     * @param aadPrefix 附加数据前缀，如 签名前缀 + 时间戳
+     * @param pool      缓冲区池
+     * @return 结果 返回明文（UTF-8），校验失败抛出 CryptoException
+     */
+    public static byte[] aesGcmDecrypt(String text, byte[] key, String aadPrefix, SecureBufferPool pool) {
+        return gcmDecrypt("AES", text, key, aadPrefix, pool);
+    }
+
+    private static String gcmEncrypt(String algorithm, String text, byte[] key, String aadPrefix, SecureBufferPool pool) {
+        byte[] nonce = new byte[GCM_NONCE_LENGTH];
+        RANDOM.nextBytes(nonce);
+        byte[] aad = (aadPrefix + encodeHex(nonce, GCM_NONCE_LENGTH)).getBytes(StandardCharsets.UTF_8);
+
+        byte[] input = pool.acquire(text.length() * 3);
+        byte[] output = pool.acquire(GCM_NONCE_LENGTH + text.length() * 3 + GCM_TAG_LENGTH);
+        try {
+            int length = encodeUtf8(text, input);
+            System.arraycopy(nonce, 0, output, 0, GCM_NONCE_LENGTH);
+            length = gcmDoFinal(algorithm, Cipher.ENCRYPT_MODE, key, nonce, aad, input, 0, length, output, GCM_NONCE_LENGTH);
+            return encodeHex(output, GCM_NONCE_LENGTH + length);
+        } finally {
+            pool.release(input);
+            pool.release(output);
+        }
+    }
+
+    private static byte[] gcmDecrypt(String algorithm, String text, byte[] key, String aadPrefix, SecureBufferPool pool) {
+        byte[] input = pool.acquire(text.length() / 2);
+        byte[] output = pool.acquire(text.length() / 2);
+        try {
+            int length = decodeHex(text, input);
+            if (length < GCM_NONCE_LENGTH + GCM_TAG_LENGTH) {
+                throw new CryptoException("gcm密文长度错误");
+            }
+            byte[] nonce = Arrays.copyOf(input, GCM_NONCE_LENGTH);
+            byte[] aad = (aadPrefix + encodeHex(nonce, GCM_NONCE_LENGTH)).getBytes(StandardCharsets.UTF_8);
+
+            int plainLength = gcmDoFinal(algorithm, Cipher.DECRYPT_MODE, key, nonce, aad, input, GCM_NONCE_LENGTH, length - GCM_NONCE_LENGTH, output, 0);
+            return Arrays.copyOf(output, plainLength);
+        } finally {
+            pool.release(input);
+            pool.release(output);
+        }
+    }
+
+    private static int gcmDoFinal(String algorithm, int mode, byte[] key, byte[] nonce, byte[] aad,
+                                  byte[] input, int inputOffset, int length, byte[] output, int outputOffset) {
+        try {
+            // sm4只有BouncyCastle实现；aes使用JDK默认实现，HotSpot对其有硬件指令优化
+            Cipher cipher = "SM4".equals(algorithm)
+                    ? Cipher.getInstance("SM4/GCM/NoPadding", BC)
+                    : Cipher.getInstance(algorithm + "/GCM/NoPadding");
+            cipher.init(mode, new SecretKeySpec(key, 0, SM4_KEY_LENGTH, algorithm), new GCMParameterSpec(GCM_TAG_LENGTH * 8, nonce));
+            cipher.updateAAD(aad);
+            return cipher.doFinal(input, inputOffset, length, output, outputOffset);
+        } catch (GeneralSecurityException e) {
+            throw new CryptoException(e);
+        }
+    }
+
+    /**
+     * 生成ECDH密钥对（P-256），公钥给调用方，私钥配置在服务端
+     *
+     * @return 密钥对
+     */
+    public static KeyPair createKeyPairECDH() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"), RANDOM);
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new CryptoException(e);
+        }
+    }
+
+    /**
+     * 密钥转Base64，公钥为X.509格式，私钥为PKCS#8格式
+     *
+     * @param key 密钥
+     * @return Base64
+     */
+    public static String encodeKey(Key key) {
+        return Base64.encode(key.getEncoded());
+    }
+
+    /**
+     * 解析ECDH私钥（Base64的PKCS#8），支持EC（P-256）和X25519（需JDK 11+）
+     *
+     * @param privateKey 私钥
+     * @return 私钥
+     */
+    public static PrivateKey ecdhPrivateKey(String privateKey) {
+        PKCS8EncodedKeySpec spec = new PKCS8EncodedKeySpec(Base64.decode(privateKey));
+        for (String algorithm : ECDH_KEY_ALGORITHMS) {
+            try {
+                return KeyFactory.getInstance(algorithm).generatePrivate(spec);
+            } catch (GeneralSecurityException e) {
+                // 尝试下一种算法
+            }
+        }
+        throw new CryptoException("ecdh私钥格式错误");
+    }
+
+    /**
+     * 解析ECDH公钥（Base64的X.509），支持EC（P-256）和X25519（需JDK 11+）
+     *
+     * @param publicKey 公钥
+     * @return 公钥
+     */
+    public static PublicKey ecdhPublicKey(String publicKey) {
+        X509EncodedKeySpec spec = new X509EncodedKeySpec(Base64.decode(publicKey));
+        for (String algorithm : ECDH_KEY_ALGORITHMS) {
+            try {
+                return KeyFactory.getInstance(algorithm).generatePublic(spec);
+            } catch (GeneralSecurityException e) {
+                // 尝试下一种算法
+            }
+        }
+        throw new CryptoException("ecdh公钥格式错误");
+    }
+
+    /**
+     * 服务端：用自己的私钥和调用方的临时公钥协商会话密钥，写入缓冲区，不生成String
+     *
+     * @param privateKey    服务端私钥
+     * @param peerPublicKey 调用方临时公钥，Base64的X.509
+     * @param output        输出缓冲区，长度不小于16
+     */
+    public static void ecdhDeriveKey(PrivateKey privateKey, String peerPublicKey, byte[] output) {
+        PublicKey peer;
+        try {
+            peer = KeyFactory.getInstance(privateKey.getAlgorithm()).generatePublic(new X509EncodedKeySpec(Base64.decode(peerPublicKey)));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new CryptoException("ecdh公钥格式错误");
+        }
+        ecdhDeriveKey(privateKey, peer, output);
+    }
+
+    /**
+     * 调用方：生成临时密钥对，与服务端公钥协商会话密钥
+     *
+     * @param serverPublicKey 服务端公钥，Base64的X.509
+     * @param output          输出缓冲区，长度不小于16
+     * @return 临时公钥（Base64的X.509），放入请求头
+     */
+    public static String ecdhWrapKey(String serverPublicKey, byte[] output) {
+        PublicKey server = ecdhPublicKey(serverPublicKey);
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance(server.getAlgorithm());
+            if (server instanceof ECPublicKey) {
+                generator.initialize(((ECPublicKey) server).getParams(), RANDOM);
+            }
+            KeyPair ephemeral = generator.generateKeyPair();
+            ecdhDeriveKey(ephemeral.getPrivate(), server, output);
+            return encodeKey(ephemeral.getPublic());
+        } catch (GeneralSecurityException e) {
+            throw new CryptoException(e);
+        }
+    }
+
+    /**
+     * 共享密钥经 SHA-256(共享密钥 + 标签) 后取前16字节作为aes-128密钥
+     */
+    private static void ecdhDeriveKey(PrivateKey privateKey, PublicKey peer, byte[] output) {
+        byte[] secret = null;
+        byte[] digest = null;
+        try {
+            String algorithm = privateKey.getAlgorithm();
+            KeyAgreement agreement = KeyAgreement.getInstance("EC".equals(algorithm) ? "ECDH" : algorithm);
+            agreement.init(privateKey);
+            agreement.doPhase(peer, true);
+            secret = agreement.generateSecret();
+
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            messageDigest.update(secret);
+            messageDigest.update(ECDH_KDF_LABEL);
+            digest = messageDigest.digest();
+            System.arraycopy(digest, 0, output, 0, SM4_KEY_LENGTH);
+        } catch (GeneralSecurityException e) {
+            throw new CryptoException(e);
+        } finally {
+            if (secret != null) {
+                Arrays.fill(secret, (byte) 0);
+            }
+            if (digest != null) {
+                Arrays.fill(digest, (byte) 0);
+            }
+        }
+    }
+
+    /**
+     * 字符串按UTF-8写入缓冲区
+     * @param text 内容
+     * @param output 输出缓冲区，长度不小于 text.length() * 3
+     * @return 字节数
+     */
+    public static int encodeUtf8(String text, byte[] output) {
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        ByteBuffer buffer = ByteBuffer.wrap(output);
+        CoderResult result = encoder.encode(CharBuffer.wrap(text), buffer, true);
+        if (!result.isUnderflow()) {
+            throw new CryptoException("UTF-8编码失败");
+        }
+        encoder.flush(buffer);
+        return buffer.position();
+    }
+
+    /**
+     * 十六进制字符串写入缓冲区
+     * @param hex 十六进制字符串
+     * @param output 输出缓冲区，长度不小于 hex.length() / 2
+     * @return 字节数
+     */
+    public static int decodeHex(CharSequence hex, byte[] output) {
+        int length = hex.length();
+        if ((length & 1) != 0) {
+            throw new CryptoException("十六进制字符串长度错误");
+        }
+        for (int i = 0; i < length; i += 2) {
+            output[i / 2] = (byte) ((hexDigit(hex.charAt(i)) << 4) | hexDigit(hex.charAt(i + 1)));
+        }
+        return length / 2;
+    }
+
+    /**
+     * 密文写入缓冲区，与 hutool 的 SM4.decryptStr 一致：全部为十六进制字符时按十六进制解码，否则按Base64解码
+     * @param text 十六进制或Base64密文
+     * @param output 输出缓冲区，长度不小于 cipherTextLength(text)
+     * @return 字节数
+     */
+    public static int decodeCipherText(CharSequence text, byte[] output) {
+        return isHex(text) ? decodeHex(text, output) : decodeBase64(text, output);
+    }
+
+    /**
+     * 密文解码后的最大字节数
+     * @param text 十六进制或Base64密文
+     * @return 字节数
+     */
+    public static int cipherTextLength(CharSequence text) {
+        return isHex(text) ? text.length() / 2 : text.length() * 3 / 4;
+    }
+
+    /**
+     * Base64字符串写入缓冲区，支持标准和URL安全字符，忽略空白，填充字符可省略
+     * @param base64 Base64字符串
+     * @param output 输出缓冲区，长度不小于 base64.length() * 3 / 4
+     * @return 字节数
+     */
+    public static int decodeBase64(CharSequence base64, byte[] output) {
+        int bits = 0;
+        int bitCount = 0;
+        int length = 0;
+        for (int i = 0; i < base64.length(); i++) {
+            char c = base64.charAt(i);
+            if (c == '=') {
+                break;
+            }
+            if (Character.isWhitespace(c)) {
+                continue;
+            }
+            int value = c < BASE64.length ? BASE64[c] : -1;
+            if (value < 0) {
+                throw new CryptoException("Base64字符串格式错误");
+            }
+            bits = (bits << 6) | value;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                output[length++] = (byte) (bits >> bitCount);
+                bits &= (1 << bitCount) - 1;
+            }
+        }
+        return length;
+    }
+
+    private static boolean isHex(CharSequence text) {
+        if (text.length() == 0) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.digit(text.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 字节数组转十六进制
+     * @param input 字节数组
+     * @param length 有效长度
+     * @return 十六进制字符串
+     */
+    public static String encodeHex(byte[] input, int length) {
+        char[] chars = new char[length * 2];
+        for (int i = 0; i < length; i++) {
+            chars[i * 2] = HEX[(input[i] >> 4) & 0x0F];
+            chars[i * 2 + 1] = HEX[input[i] & 0x0F];
+        }
+        return new String(chars);
+    }
+
+    private static int hexDigit(int c) {
+        int digit = Character.digit(c, 16);
+        if (digit < 0) {
+            throw new CryptoException("十六进制字符串格式错误");
+        }
+        return digit;
+    }
+
     /**
      * md5
      * 推荐使用sha256
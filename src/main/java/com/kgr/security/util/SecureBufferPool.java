@@ -0,0 +1,168 @@
+package com.kgr.security.util;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 加解密缓冲区池
+ * 按2的幂分级（最小256字节）复用byte数组，按线程分段减少竞争；归还时清零，缩短密钥和明文在堆中停留的时间
+ */
+public class SecureBufferPool {
+
+    private static final int MIN_SHIFT = 8;
+
+    private final int maxShift;
+
+    private final int maxPerClass;
+
+    private final Stripe[] stripes;
+
+    private final int stripeMask;
+
+    private final AtomicInteger pooledCount = new AtomicInteger();
+    private final AtomicLong pooledBytes = new AtomicLong();
+    private final AtomicLong outstanding = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+
+    /**
+     * @param maxBufferSize 可复用的最大缓冲区（字节），更大的缓冲区用完即丢弃
+     * @param maxPerClass 每个分段中每个级别最多保留的缓冲区数
+     * @param stripeCount 分段数
+     */
+    public SecureBufferPool(int maxBufferSize, int maxPerClass, int stripeCount) {
+        this.maxShift = Math.max(MIN_SHIFT, shiftFor(maxBufferSize));
+        this.maxPerClass = maxPerClass;
+
+        int count = 1;
+        while (count < stripeCount) {
+            count <<= 1;
+        }
+        this.stripeMask = count - 1;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(maxShift - MIN_SHIFT + 1);
+        }
+    }
+
+    /**
+     * 借出长度不小于size的缓冲区，用完必须调用 release 归还
+     * 缓冲区可能比size长，调用方需要自己记录有效长度
+     */
+    public byte[] acquire(int size) {
+        outstanding.incrementAndGet();
+        int shift = shiftFor(size);
+        if (shift > maxShift) {
+            misses.increment();
+            return new byte[size];
+        }
+
+        ArrayDeque<byte[]> deque = stripe().classes[shift - MIN_SHIFT];
+        byte[] buffer;
+        synchronized (deque) {
+            buffer = deque.pollFirst();
+        }
+        if (Objects.isNull(buffer)) {
+            misses.increment();
+            return new byte[1 << shift];
+        }
+        hits.increment();
+        pooledCount.decrementAndGet();
+        pooledBytes.addAndGet(-buffer.length);
+        return buffer;
+    }
+
+    /**
+     * 清零并归还缓冲区，超出级别或池已满时直接丢弃
+     */
+    public void release(byte[] buffer) {
+        if (Objects.isNull(buffer)) {
+            return;
+        }
+        Arrays.fill(buffer, (byte) 0);
+        outstanding.decrementAndGet();
+
+        int length = buffer.length;
+        int shift = shiftFor(length);
+        if (length != 1 << shift || shift > maxShift) {
+            discarded.increment();
+            return;
+        }
+
+        ArrayDeque<byte[]> deque = stripe().classes[shift - MIN_SHIFT];
+        synchronized (deque) {
+            if (deque.size() >= maxPerClass) {
+                discarded.increment();
+                return;
+            }
+            deque.offerFirst(buffer);
+        }
+        pooledCount.incrementAndGet();
+        pooledBytes.addAndGet(length);
+    }
+
+    /**
+     * 池中空闲的缓冲区数
+     */
+    public int getPooledCount() {
+        return pooledCount.get();
+    }
+
+    /**
+     * 池中空闲缓冲区的总字节数
+     */
+    public long getPooledBytes() {
+        return pooledBytes.get();
+    }
+
+    /**
+     * 已借出未归还的缓冲区数
+     */
+    public long getOutstandingCount() {
+        return outstanding.get();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * 归还时因池已满或尺寸不合适被丢弃的缓冲区数
+     */
+    public long getDiscardedCount() {
+        return discarded.sum();
+    }
+
+    private Stripe stripe() {
+        return stripes[(int) Thread.currentThread().getId() & stripeMask];
+    }
+
+    private static int shiftFor(int size) {
+        if (size <= 1 << MIN_SHIFT) {
+            return MIN_SHIFT;
+        }
+        return 32 - Integer.numberOfLeadingZeros(size - 1);
+    }
+
+    private static final class Stripe {
+
+        private final ArrayDeque<byte[]>[] classes;
+
+        @SuppressWarnings("unchecked")
+        Stripe(int classCount) {
+            classes = new ArrayDeque[classCount];
+            for (int i = 0; i < classCount; i++) {
+                classes[i] = new ArrayDeque<>();
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.kgr.security.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 无锁环形队列：容量、队列满、序号回绕和多生产者写入
+ */
+class AuditRingBufferTest {
+
+    @Test
+    void capacityRoundsUpToPowerOfTwo() {
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(3);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+    }
+
+    @Test
+    void offerFailsWhenFullAndSucceedsAfterPoll() {
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(2);
+        assertTrue(buffer.offer(1));
+        assertTrue(buffer.offer(2));
+
+        assertFalse(buffer.offer(3));
+        assertEquals(1, buffer.poll());
+        assertTrue(buffer.offer(3));
+
+        assertEquals(2, buffer.poll());
+        assertEquals(3, buffer.poll());
+        assertNull(buffer.poll());
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void wrapsAroundInOrder() {
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(4);
+        int next = 0;
+        int expected = 0;
+        // 写入和读取交替进行，序号多次越过容量
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 3; i++) {
+                assertTrue(buffer.offer(next++));
+            }
+            for (int i = 0; i < 3; i++) {
+                assertEquals(expected++, buffer.poll());
+            }
+        }
+        assertNull(buffer.poll());
+    }
+
+    @Test
+    void multipleProducersSingleConsumer() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 10000;
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(64);
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            for (int p = 0; p < producers; p++) {
+                int base = p * perProducer;
+                pool.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < perProducer; i++) {
+                        // 队列满时重试，保证每个元素都写入
+                        while (!buffer.offer(base + i)) {
+                            Thread.yield();
+                        }
+                    }
+                });
+            }
+            start.countDown();
+
+            boolean[] seen = new boolean[producers * perProducer];
+            int[] lastByProducer = new int[producers];
+            Arrays.fill(lastByProducer, -1);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            int received = 0;
+            while (received < seen.length && System.nanoTime() < deadline) {
+                Integer value = buffer.poll();
+                if (value == null) {
+                    Thread.yield();
+                    continue;
+                }
+                assertFalse(seen[value], "重复读取 " + value);
+                seen[value] = true;
+                // 同一生产者写入的元素保持顺序
+                int producer = value / perProducer;
+                assertTrue(value > lastByProducer[producer]);
+                lastByProducer[producer] = value;
+                received++;
+            }
+            assertEquals(seen.length, received);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
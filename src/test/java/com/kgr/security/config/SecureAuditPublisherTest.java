@@ -0,0 +1,98 @@
+package com.kgr.security.config;
+
+import com.kgr.security.audit.SecureAuditEvent;
+import com.kgr.security.audit.SecureAuditListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 审计发布：队列满时丢弃并计数，审计线程休眠后由新事件唤醒
+ */
+class SecureAuditPublisherTest {
+
+    private SecureAuditPublisher publisher;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (publisher != null) {
+            publisher.destroy();
+        }
+    }
+
+    @Test
+    void dropsEventsWhenBufferIsFull() throws InterruptedException {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        publisher = createPublisher(2, event -> {
+            entered.countDown();
+            await(release);
+        });
+
+        // 第一个事件被审计线程取出后阻塞在监听中，队列里只剩2个空位
+        publish();
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 4; i++) {
+            publish();
+        }
+
+        assertEquals(2, publisher.getDroppedCount());
+        assertEquals(2, publisher.getPendingCount());
+        release.countDown();
+    }
+
+    @Test
+    void wakesParkedConsumer() throws InterruptedException {
+        CountDownLatch received = new CountDownLatch(1);
+        publisher = createPublisher(16, event -> received.countDown());
+
+        // 等审计线程自旋结束进入休眠
+        Thread.sleep(200);
+        long start = System.nanoTime();
+        publish();
+
+        // 休眠上限为1秒，被唤醒时应远早于此
+        assertTrue(received.await(500, TimeUnit.MILLISECONDS));
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500));
+    }
+
+    @Test
+    void drainsPendingEventsOnDestroy() throws InterruptedException {
+        CountDownLatch received = new CountDownLatch(3);
+        publisher = createPublisher(16, event -> received.countDown());
+
+        for (int i = 0; i < 3; i++) {
+            publish();
+        }
+        publisher.destroy();
+        publisher = null;
+
+        assertEquals(0, received.getCount());
+    }
+
+    private void publish() {
+        publisher.failure(SecureAuditEvent.Action.DECRYPT_REQUEST, null, System.nanoTime(), 0, new IllegalStateException("test"));
+    }
+
+    private static SecureAuditPublisher createPublisher(int bufferSize, SecureAuditListener listener) {
+        SecureProperties secureProperties = new SecureProperties();
+        secureProperties.getAudit().setBufferSize(bufferSize);
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("listener", listener);
+        return new SecureAuditPublisher(secureProperties, beanFactory.getBeanProvider(SecureAuditListener.class));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.kgr.security.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 加解密执行器：准入许可已满时返回503，拒绝、超时和任务异常后都归还准入许可
+ * 并发数1、队列长度1，共2个准入许可
+ */
+class SecureCryptoExecutorTest {
+
+    private static final int PERMITS = 2;
+
+    private SecureCryptoExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.destroy();
+        }
+    }
+
+    @Test
+    void rejectsWhenAdmissionIsFull() throws InterruptedException {
+        executor = createExecutor(5000L);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // 一个任务占住工作线程，一个任务排队，准入许可用完
+        Thread running = submitInBackground(() -> {
+            entered.countDown();
+            await(release);
+        });
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        Thread waiting = submitInBackground(() -> { });
+        awaitCondition(() -> executor.getQueueDepth() == 1);
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> executor.execute(0, () -> "rejected"));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatus());
+        assertEquals(1, executor.getRejectedCount());
+        assertEquals(0, availablePermits());
+
+        release.countDown();
+        running.join(5000);
+        waiting.join(5000);
+        awaitPermits(PERMITS);
+        assertEquals(2, executor.getCompletedCount());
+    }
+
+    @Test
+    void releasesPermitOnTaskException() {
+        executor = createExecutor(5000L);
+
+        // 次数多于准入许可数，许可泄漏时会变成503
+        for (int i = 0; i < PERMITS * 3; i++) {
+            assertThrows(IllegalArgumentException.class, () -> executor.execute(0, () -> {
+                throw new IllegalArgumentException("test");
+            }));
+            awaitPermits(PERMITS);
+        }
+        assertEquals(0, executor.getRejectedCount());
+    }
+
+    @Test
+    void runningTaskKeepsPermitUntilFinished() throws InterruptedException {
+        executor = createExecutor(100L);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> executor.execute(0, () -> {
+            entered.countDown();
+            await(release);
+            return "late";
+        }));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatus());
+        assertEquals(1, executor.getTimeoutCount());
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        // 已开始的运算不响应取消，结束前一直占用许可
+        assertEquals(PERMITS - 1, availablePermits());
+        release.countDown();
+        awaitPermits(PERMITS);
+    }
+
+    @Test
+    void queuedTaskReleasesPermitOnTimeout() throws InterruptedException {
+        executor = createExecutor(200L);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread running = submitInBackground(() -> {
+            entered.countDown();
+            await(release);
+        });
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        AtomicBoolean ran = new AtomicBoolean();
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> executor.execute(0, () -> {
+            ran.set(true);
+            return "queued";
+        }));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatus());
+
+        // 排队中的任务超时后立即归还许可，只剩运行中的任务占用
+        assertEquals(PERMITS - 1, availablePermits());
+        assertEquals(0, executor.getQueueDepth());
+
+        release.countDown();
+        running.join(5000);
+        awaitPermits(PERMITS);
+        assertFalse(ran.get());
+    }
+
+    @Test
+    void releasesPermitWhenExecutorRejects() {
+        executor = createExecutor(5000L);
+        executor.destroy();
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> executor.execute(0, () -> "shutdown"));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatus());
+        assertEquals(1, executor.getRejectedCount());
+        assertEquals(PERMITS, availablePermits());
+        assertEquals(0, executor.getQueueDepth());
+    }
+
+    @Test
+    void runsSmallPayloadOnCallerThread() {
+        SecureProperties secureProperties = properties(5000L);
+        secureProperties.getOffload().setThreshold(1024);
+        executor = new SecureCryptoExecutor(secureProperties);
+
+        assertEquals(Thread.currentThread(), executor.execute(1023, Thread::currentThread));
+        assertEquals(PERMITS, availablePermits());
+    }
+
+    /**
+     * 在后台线程中提交任务，超时的503由后台线程忽略，任务本身继续占用许可
+     */
+    private Thread submitInBackground(Runnable task) {
+        Thread thread = new Thread(() -> {
+            try {
+                executor.execute(0, () -> {
+                    task.run();
+                    return null;
+                });
+            } catch (ResponseStatusException ignored) {
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private int availablePermits() {
+        return ((Semaphore) ReflectionTestUtils.getField(executor, "admission")).availablePermits();
+    }
+
+    /**
+     * 准入许可在任务线程的 run 结束时归还，可能晚于调用方拿到结果
+     */
+    private void awaitPermits(int expected) {
+        awaitCondition(() -> availablePermits() == expected);
+        assertEquals(expected, availablePermits());
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.yield();
+        }
+    }
+
+    private static SecureCryptoExecutor createExecutor(long timeout) {
+        return new SecureCryptoExecutor(properties(timeout));
+    }
+
+    private static SecureProperties properties(long timeout) {
+        SecureProperties secureProperties = new SecureProperties();
+        SecureProperties.Offload offload = secureProperties.getOffload();
+        offload.setEnabled(true);
+        offload.setThreshold(0);
+        offload.setMaxConcurrency(1);
+        offload.setQueueCapacity(1);
+        offload.setTimeout(timeout);
+        offload.setVirtualThreads(false);
+        return secureProperties;
+    }
+
+    /**
+     * 模拟不响应中断的加解密运算，超时取消时中断标记被忽略
+     */
+    private static void await(CountDownLatch latch) {
+        boolean interrupted = false;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (latch.getCount() > 0 && System.nanoTime() < deadline) {
+            try {
+                latch.await(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
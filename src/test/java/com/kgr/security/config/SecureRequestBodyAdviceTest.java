@@ -0,0 +1,62 @@
+package com.kgr.security.config;
+
+import com.kgr.security.util.CryptoUtils;
+import com.kgr.security.util.SecureBufferPool;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * post请求和批量请求的解密验签，密文为十六进制或Base64，签名为十六进制
+ */
+class SecureRequestBodyAdviceTest {
+
+    private static final String KEY = "0123456789abcdeffedcba9876543210";
+
+    private static final String TEXT = "{\"username\":\"张三\",\"userId\":1}";
+
+    private static final long TIMESTAMP = 1700000000L;
+
+    private final SecureRequestBodyAdvice advice = createAdvice();
+
+    @Test
+    void decryptAndVerifyHex() {
+        String sign = CryptoUtils.sm4Encrypt("Timestamp" + TIMESTAMP + TEXT, KEY);
+
+        byte[] plain = advice.decryptAndVerify(CryptoUtils.sm4Encrypt(TEXT, KEY), key(), sign, TIMESTAMP);
+
+        assertEquals(TEXT, new String(plain, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void decryptAndVerifyBase64() {
+        String sign = CryptoUtils.sm4Encrypt("Timestamp" + TIMESTAMP + TEXT, KEY);
+
+        byte[] plain = advice.decryptAndVerify(CryptoUtils.sm4EncryptBase64(TEXT, KEY), key(), sign, TIMESTAMP);
+
+        assertEquals(TEXT, new String(plain, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void decryptAndVerifyRejectsWrongSign() {
+        String sign = CryptoUtils.sm4Encrypt("Timestamp" + (TIMESTAMP + 1) + TEXT, KEY);
+
+        assertThrows(RuntimeException.class,
+                () -> advice.decryptAndVerify(CryptoUtils.sm4EncryptBase64(TEXT, KEY), key(), sign, TIMESTAMP));
+    }
+
+    private static SecureRequestBodyAdvice createAdvice() {
+        SecureProperties secureProperties = new SecureProperties();
+        secureProperties.setSignPrefix("Timestamp");
+        return new SecureRequestBodyAdvice(secureProperties, null, null, new SecureBufferPool(64 * 1024, 4, 1), null);
+    }
+
+    private static byte[] key() {
+        byte[] key = new byte[CryptoUtils.SM4_KEY_LENGTH];
+        CryptoUtils.decodeHex(KEY, key);
+        return key;
+    }
+}
@@ -0,0 +1,103 @@
+package com.kgr.security.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * GCM密文格式的已知答案，固定密钥和nonce，确认 十六进制(nonce + 密文 + tag) 格式和
+ * 附加数据 前缀 + 时间戳 + nonce的十六进制 与前端 cryptoUtils.js 的 sm4GcmDecrypt 一致
+ * 同一组数据写在 README 中，前端 sm4GcmDecrypt(SM4_GCM, KEY, AAD_PREFIX) 应得到 PLAIN_TEXT
+ */
+class CryptoUtilsGcmTest {
+
+    private static final String KEY = "0123456789abcdeffedcba9876543210";
+
+    private static final String NONCE = "000102030405060708090a0b";
+
+    /**
+     * 签名前缀 Timestamp + 时间戳 1700000000
+     */
+    private static final String AAD_PREFIX = "Timestamp1700000000";
+
+    private static final String PLAIN_TEXT = "{\"username\":\"张三\",\"deptId\":\"1250500000\",\"userId\":1}";
+
+    private static final String SM4_GCM = NONCE
+            + "2e036de2d4c3c77e09e5a191f9b9daf56c41a08f6c73dada36c0e04bb2d7314a7b30fd6f14390d253793731261e2"
+            + "eee253eb06990a02eccdb83e0df26927a33f52b877c6ed9d";
+
+    /**
+     * ECDH_AES_GCM 套件使用相同格式，会话密钥取同一组字节
+     */
+    private static final String AES_GCM = NONCE
+            + "687f083d74a67359fe28c316fac517f118bf3ee3474c871342d3b6a7358cc9a515d066c3f0f5c459c33ed038d56b"
+            + "76f09943776c56db93ca74e6b9585538df43d10a10f7b5ab";
+
+    private final SecureBufferPool pool = new SecureBufferPool(4096, 2, 1);
+
+    @Test
+    void sm4GcmEncryptWithFixedNonce() {
+        byte[] plain = PLAIN_TEXT.getBytes(StandardCharsets.UTF_8);
+        byte[] aad = (AAD_PREFIX + NONCE).getBytes(StandardCharsets.UTF_8);
+        byte[] output = new byte[plain.length + CryptoUtils.GCM_TAG_LENGTH];
+
+        int length = CryptoUtils.sm4GcmEncrypt(key(), nonce(), aad, plain, plain.length, output, 0);
+
+        assertEquals(SM4_GCM, NONCE + CryptoUtils.encodeHex(output, length));
+    }
+
+    @Test
+    void sm4GcmDecrypt() {
+        byte[] plain = CryptoUtils.sm4GcmDecrypt(SM4_GCM, key(), AAD_PREFIX, pool);
+
+        assertEquals(PLAIN_TEXT, new String(plain, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void aesGcmDecrypt() {
+        byte[] plain = CryptoUtils.aesGcmDecrypt(AES_GCM, key(), AAD_PREFIX, pool);
+
+        assertEquals(PLAIN_TEXT, new String(plain, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void sm4GcmRoundTrip() {
+        String cipherText = CryptoUtils.sm4GcmEncrypt(PLAIN_TEXT, key(), AAD_PREFIX, pool);
+
+        assertEquals(PLAIN_TEXT, new String(CryptoUtils.sm4GcmDecrypt(cipherText, key(), AAD_PREFIX, pool), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void sm4GcmRejectsChangedTimestamp() {
+        assertThrows(RuntimeException.class, () -> CryptoUtils.sm4GcmDecrypt(SM4_GCM, key(), "Timestamp1700000001", pool));
+    }
+
+    @Test
+    void sm4GcmRejectsChangedTag() {
+        String tampered = SM4_GCM.substring(0, SM4_GCM.length() - 2) + "00";
+
+        assertThrows(RuntimeException.class, () -> CryptoUtils.sm4GcmDecrypt(tampered, key(), AAD_PREFIX, pool));
+    }
+
+    @Test
+    void sm4GcmRejectsShortInput() {
+        String shortText = SM4_GCM.substring(0, (CryptoUtils.GCM_NONCE_LENGTH + CryptoUtils.GCM_TAG_LENGTH - 1) * 2);
+
+        assertThrows(RuntimeException.class, () -> CryptoUtils.sm4GcmDecrypt(shortText, key(), AAD_PREFIX, pool));
+    }
+
+    private static byte[] key() {
+        byte[] key = new byte[CryptoUtils.SM4_KEY_LENGTH];
+        CryptoUtils.decodeHex(KEY, key);
+        return key;
+    }
+
+    private static byte[] nonce() {
+        byte[] nonce = new byte[CryptoUtils.GCM_NONCE_LENGTH];
+        CryptoUtils.decodeHex(NONCE, nonce);
+        return nonce;
+    }
+}
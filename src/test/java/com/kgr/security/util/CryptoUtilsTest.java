@@ -0,0 +1,82 @@
+package com.kgr.security.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * sm4密文解码，十六进制和Base64两种格式都要能解密
+ */
+class CryptoUtilsTest {
+
+    private static final String KEY = "0123456789abcdeffedcba9876543210";
+
+    private static final String TEXT = "{\"username\":\"张三\",\"deptId\":\"1250500000\",\"userId\":1}";
+
+    private final SecureBufferPool pool = new SecureBufferPool(64 * 1024, 4, 1);
+
+    @Test
+    void sm4DecryptHex() {
+        String cipherText = CryptoUtils.sm4Encrypt(TEXT, KEY);
+
+        assertEquals(TEXT, CryptoUtils.sm4Decrypt(cipherText, key(), pool));
+        assertEquals(TEXT, CryptoUtils.sm4Decrypt(cipherText.toUpperCase(), key(), pool));
+    }
+
+    @Test
+    void sm4DecryptBase64() {
+        String cipherText = CryptoUtils.sm4EncryptBase64(TEXT, KEY);
+
+        assertEquals(TEXT, CryptoUtils.sm4Decrypt(cipherText, key(), pool));
+        assertEquals(TEXT, CryptoUtils.sm4Decrypt(cipherText, KEY));
+    }
+
+    @Test
+    void sm4DecryptUrlSafeBase64() {
+        byte[] cipher = encrypt(TEXT);
+        String cipherText = Base64.getUrlEncoder().withoutPadding().encodeToString(cipher);
+
+        assertEquals(TEXT, CryptoUtils.sm4Decrypt(cipherText, key(), pool));
+    }
+
+    @Test
+    void decodeBase64MatchesJdk() {
+        Random random = new Random(42);
+        for (int length = 0; length < 64; length++) {
+            byte[] data = new byte[length];
+            random.nextBytes(data);
+            String base64 = Base64.getEncoder().encodeToString(data);
+            byte[] output = new byte[base64.length() * 3 / 4];
+
+            int decoded = CryptoUtils.decodeBase64(base64, output);
+
+            assertArrayEquals(data, Arrays.copyOf(output, decoded), "length " + length);
+        }
+    }
+
+    @Test
+    void decodeCipherTextRejectsInvalidCharacters() {
+        assertThrows(RuntimeException.class, () -> CryptoUtils.decodeCipherText("abc$", new byte[16]));
+        assertThrows(RuntimeException.class, () -> CryptoUtils.decodeCipherText("abc", new byte[16]));
+    }
+
+    private static byte[] key() {
+        byte[] key = new byte[CryptoUtils.SM4_KEY_LENGTH];
+        CryptoUtils.decodeHex(KEY, key);
+        return key;
+    }
+
+    private static byte[] encrypt(String text) {
+        byte[] input = text.getBytes(StandardCharsets.UTF_8);
+        byte[] output = new byte[input.length + CryptoUtils.SM4_KEY_LENGTH];
+        int length = CryptoUtils.sm4Encrypt(key(), input, input.length, output);
+        return Arrays.copyOf(output, length);
+    }
+}
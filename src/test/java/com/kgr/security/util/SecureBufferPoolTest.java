@@ -0,0 +1,122 @@
+package com.kgr.security.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 缓冲区池：尺寸分级、归还清零、超大缓冲区丢弃和分段复用
+ */
+class SecureBufferPoolTest {
+
+    @Test
+    void roundsUpToSizeClass() {
+        SecureBufferPool pool = new SecureBufferPool(64 * 1024, 4, 1);
+
+        assertEquals(256, pool.acquire(0).length);
+        assertEquals(256, pool.acquire(1).length);
+        assertEquals(256, pool.acquire(256).length);
+        assertEquals(512, pool.acquire(257).length);
+        assertEquals(1024, pool.acquire(1024).length);
+        assertEquals(2048, pool.acquire(1025).length);
+        assertEquals(64 * 1024, pool.acquire(64 * 1024).length);
+    }
+
+    @Test
+    void zeroFillsOnRelease() {
+        SecureBufferPool pool = new SecureBufferPool(64 * 1024, 4, 1);
+        byte[] buffer = pool.acquire(100);
+        Arrays.fill(buffer, (byte) 7);
+
+        pool.release(buffer);
+
+        assertTrue(isZero(buffer));
+        byte[] reused = pool.acquire(100);
+        assertSame(buffer, reused);
+        assertTrue(isZero(reused));
+    }
+
+    @Test
+    void discardsOversizeBuffers() {
+        SecureBufferPool pool = new SecureBufferPool(1024, 4, 1);
+
+        // 超出最大级别时按实际长度分配，不做取整
+        byte[] buffer = pool.acquire(5000);
+        assertEquals(5000, buffer.length);
+        buffer[0] = 1;
+        pool.release(buffer);
+
+        assertTrue(isZero(buffer));
+        assertEquals(1, pool.getDiscardedCount());
+        assertEquals(0, pool.getPooledCount());
+        assertNotSame(buffer, pool.acquire(5000));
+    }
+
+    @Test
+    void discardsBuffersNotFromPool() {
+        SecureBufferPool pool = new SecureBufferPool(1024, 4, 1);
+
+        pool.release(new byte[300]);
+
+        assertEquals(1, pool.getDiscardedCount());
+        assertEquals(0, pool.getPooledCount());
+    }
+
+    @Test
+    void keepsAtMostMaxPerClass() {
+        SecureBufferPool pool = new SecureBufferPool(1024, 2, 1);
+        byte[] first = pool.acquire(256);
+        byte[] second = pool.acquire(256);
+        byte[] third = pool.acquire(256);
+
+        pool.release(first);
+        pool.release(second);
+        pool.release(third);
+
+        assertEquals(2, pool.getPooledCount());
+        assertEquals(512, pool.getPooledBytes());
+        assertEquals(1, pool.getDiscardedCount());
+        assertEquals(0, pool.getOutstandingCount());
+    }
+
+    @Test
+    void reusesWithinStripe() {
+        SecureBufferPool pool = new SecureBufferPool(1024, 4, 4);
+        byte[] buffer = pool.acquire(512);
+        pool.release(buffer);
+
+        // 同一线程总是落在同一分段
+        assertSame(buffer, pool.acquire(512));
+        assertEquals(1, pool.getHitCount());
+        assertEquals(1, pool.getMissCount());
+    }
+
+    @Test
+    void reusesAcrossThreadsWithSingleStripe() throws InterruptedException {
+        SecureBufferPool pool = new SecureBufferPool(1024, 4, 1);
+        byte[] buffer = pool.acquire(512);
+        pool.release(buffer);
+
+        AtomicReference<byte[]> acquired = new AtomicReference<>();
+        Thread thread = new Thread(() -> acquired.set(pool.acquire(512)));
+        thread.start();
+        thread.join();
+
+        assertSame(buffer, acquired.get());
+    }
+
+    private static boolean isZero(byte[] buffer) {
+        for (byte b : buffer) {
+            if (b != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}